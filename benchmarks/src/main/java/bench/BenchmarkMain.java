@@ -0,0 +1,34 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar.  It accepts the usual JMH command
+ * line and always attaches the GC profiler, so every result reports its
+ * allocation rate.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class BenchmarkMain {
+    /**
+     * Run the benchmarks.
+     *
+     * @param args JMH command line options
+     * @throws CommandLineOptionException if the options are malformed
+     * @throws RunnerException            if a benchmark fails
+     */
+    public static void main( String[] args )
+            throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder()
+                .parent( new CommandLineOptions( args ) )
+                .addProfiler( GCProfiler.class )
+                .build();
+        new Runner( options ).run();
+    }
+}
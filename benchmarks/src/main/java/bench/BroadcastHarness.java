@@ -0,0 +1,268 @@
+package bench;
+
+import broadcast.Broadcaster;
+import broadcast.Frame;
+import broadcast.SpectatorBoard;
+import broadcast.Subscription;
+import model.BoardView;
+import model.ConcentrationModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of broadcasting one game to many in-process
+ * spectators.  The main thread plays the game as fast as it can while a
+ * few consumer threads each serve a share of the subscriptions, polling
+ * every frame and applying it to the spectator's own board, as the
+ * writer threads of a server would for its connections.  Some spectators
+ * can be made slow, polling only now and then, so that they overflow
+ * their rings and are caught up from keyframes, and some can join half
+ * way through the game.  At the end every spectator's board is checked
+ * against the game.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar bench.BroadcastHarness
+ *     [--subscribers n] [--moves n] [--threads n] [--side n]
+ *     [--capacity n] [--interval n] [--slow k] [--late n]
+ * </pre>
+ * --slow k makes every kth spectator poll only once every 64 sweeps;
+ * --late n adds n spectators once half the moves are made.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class BroadcastHarness {
+    /**
+     * How many sweeps a slow spectator lets pass between polls.
+     */
+    private static final int SLOW_SWEEPS = 64;
+
+    /**
+     * One spectator: its feed, its board and what it has received.
+     */
+    private static final class Spectator {
+        /**
+         * The feed.
+         */
+        private final Subscription subscription;
+
+        /**
+         * The board rebuilt from the feed.
+         */
+        private final SpectatorBoard board = new SpectatorBoard();
+
+        /**
+         * true if the spectator polls only now and then.
+         */
+        private final boolean slow;
+
+        /**
+         * The number of frames received.
+         */
+        private long frames;
+
+        /**
+         * The number of bytes received.
+         */
+        private long bytes;
+
+        /**
+         * @param subscription the feed
+         * @param slow         true if the spectator polls only now and then
+         */
+        Spectator( Subscription subscription, boolean slow ) {
+            this.subscription = subscription;
+            this.slow = slow;
+        }
+
+        /**
+         * Apply every frame waiting, unless a slow spectator sits this
+         * sweep out.
+         *
+         * @param sweep the number of the sweep
+         * @param done  true once the game has stopped, when every
+         *              spectator polls
+         */
+        void drain( long sweep, boolean done ) {
+            if ( this.slow && !done && sweep % SLOW_SWEEPS != 0 ) {
+                return;
+            }
+            Frame frame;
+            while ( ( frame = this.subscription.poll() ) != null ) {
+                this.board.apply( frame );
+                ++this.frames;
+                this.bytes += frame.length();
+            }
+        }
+    }
+
+    /**
+     * Run the harness.
+     *
+     * @param args the options described above
+     * @throws InterruptedException if interrupted while waiting for the
+     *                              consumers
+     */
+    public static void main( String[] args ) throws InterruptedException {
+        int subscribers = 10_000;
+        int moves = 200_000;
+        int threads = 2;
+        int side = 32;
+        int capacity = Broadcaster.DEFAULT_CAPACITY;
+        int interval = Broadcaster.DEFAULT_KEYFRAME_INTERVAL;
+        int slow = 0;
+        int late = 0;
+        for ( int i = 0; i < args.length; ++i ) {
+            switch ( args[ i ] ) {
+                case "--subscribers":
+                    subscribers = Integer.parseInt( args[ ++i ] );
+                    break;
+                case "--moves":
+                    moves = Integer.parseInt( args[ ++i ] );
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt( args[ ++i ] );
+                    break;
+                case "--side":
+                    side = Integer.parseInt( args[ ++i ] );
+                    break;
+                case "--capacity":
+                    capacity = Integer.parseInt( args[ ++i ] );
+                    break;
+                case "--interval":
+                    interval = Integer.parseInt( args[ ++i ] );
+                    break;
+                case "--slow":
+                    slow = Integer.parseInt( args[ ++i ] );
+                    break;
+                case "--late":
+                    late = Integer.parseInt( args[ ++i ] );
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            "Unknown option " + args[ i ] );
+            }
+        }
+
+        ConcentrationModel model = new ConcentrationModel( side, side, 42 );
+        Broadcaster broadcaster = Broadcaster.attach( model, interval );
+        Spectator[] spectators = new Spectator[ subscribers + late ];
+        for ( int i = 0; i < subscribers; ++i ) {
+            spectators[ i ] = new Spectator( broadcaster.subscribe( capacity ),
+                                             slow > 0 && i % slow == 0 );
+        }
+        // the spectators below this count have joined
+        AtomicInteger joined = new AtomicInteger( subscribers );
+        // set to the last change once the game has stopped
+        AtomicLong last = new AtomicLong( -1 );
+
+        List< Thread > consumers = new ArrayList<>();
+        for ( int t = 0; t < threads; ++t ) {
+            int first = t;
+            int stride = threads;
+            Thread consumer = new Thread( () -> {
+                for ( long sweep = 0; ; ++sweep ) {
+                    long end = last.get();
+                    boolean caughtUp = end >= 0;
+                    for ( int i = first; i < joined.get(); i += stride ) {
+                        spectators[ i ].drain( sweep, end >= 0 );
+                        caughtUp &= spectators[ i ].board.getSequence() == end;
+                    }
+                    if ( caughtUp ) {
+                        return;
+                    }
+                }
+            }, "spectators-" + t );
+            consumer.start();
+            consumers.add( consumer );
+        }
+
+        SplittableRandom rng = new SplittableRandom( 1 );
+        long start = System.nanoTime();
+        for ( int m = 0; m < moves; ++m ) {
+            if ( m == moves / 2 ) {
+                for ( int i = subscribers; i < subscribers + late; ++i ) {
+                    spectators[ i ] = new Spectator(
+                            broadcaster.subscribe( capacity ), false );
+                }
+                joined.set( subscribers + late );
+            }
+            if ( model.isWon() ) {
+                model.reset();
+            }
+            else if ( rng.nextInt( 16 ) == 0 ) {
+                model.undo();
+            }
+            else if ( rng.nextInt( 4 ) == 0 ) {
+                model.selectCard( rng.nextInt( model.getNumCards() ) );
+            }
+            else {
+                // mostly play well, so games are won and dealt again
+                model.selectCard( model.getHints().hint() );
+            }
+        }
+        double playSeconds = ( System.nanoTime() - start ) / 1e9;
+        last.set( broadcaster.getSequence() );
+        for ( Thread consumer : consumers ) {
+            consumer.join();
+        }
+        double seconds = ( System.nanoTime() - start ) / 1e9;
+
+        long frames = 0;
+        long bytes = 0;
+        long overflows = 0;
+        long resyncs = 0;
+        int matching = 0;
+        for ( Spectator spectator : spectators ) {
+            frames += spectator.frames;
+            bytes += spectator.bytes;
+            overflows += spectator.subscription.getOverflows();
+            resyncs += spectator.subscription.getResyncs();
+            if ( sameBoard( spectator.board, model ) ) {
+                ++matching;
+            }
+        }
+        long changes = broadcaster.getSequence();
+        System.out.printf( "%d moves in %.3f s: %.0f moves/s, %d changes, " +
+                           "%d keyframes, %.1f bytes per frame encoded%n",
+                           moves, playSeconds, moves / playSeconds, changes,
+                           broadcaster.getKeyframes(),
+                           ( double ) broadcaster.getBytes() /
+                           ( changes + broadcaster.getKeyframes() ) );
+        System.out.printf( "%d spectators (%d slow, %d late) on %d " +
+                           "threads: %d frames in %.3f s, %.0f frames/s, " +
+                           "%.1f MB/s%n",
+                           spectators.length,
+                           slow > 0 ? ( subscribers + slow - 1 ) / slow : 0,
+                           late, threads, frames, seconds, frames / seconds,
+                           bytes / seconds / 1e6 );
+        System.out.printf( "overflows %d, resyncs %d, boards matching %d/%d%n",
+                           overflows, resyncs, matching, spectators.length );
+    }
+
+    /**
+     * @param board a spectator's board
+     * @param model the game
+     * @return true if the spectator sees what the player sees
+     */
+    private static boolean sameBoard( SpectatorBoard board,
+                                      ConcentrationModel model ) {
+        BoardView view = model.getBoardView();
+        if ( board.size() != view.size() ||
+             board.getMoveCount() != model.getMoveCount() ||
+             board.howManyCardsUp() != model.howManyCardsUp() ||
+             board.isWon() != model.isWon() ) {
+            return false;
+        }
+        for ( int i = 0; i < view.size(); ++i ) {
+            if ( board.getNumber( i ) != view.getNumber( i ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
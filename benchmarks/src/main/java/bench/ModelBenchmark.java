@@ -0,0 +1,176 @@
+package bench;
+
+import model.BoardView;
+import model.Card;
+import model.ConcentrationModel;
+import model.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the model operations at several board sizes and observer
+ * counts.
+ *
+ * @author Adrian Burgos awb8593
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ModelBenchmark {
+    /**
+     * The length of a side of the (square) board.
+     */
+    @Param( { "4", "32", "1000" } )
+    public int side;
+
+    /**
+     * The number of cards in a matching group.
+     */
+    @Param( { "2", "4" } )
+    public int group;
+
+    /**
+     * The number of observers registered with the model.
+     */
+    @Param( { "0", "1", "16" } )
+    public int observers;
+
+    /**
+     * Whether the model takes measurements into a MetricsRegistry.
+     */
+    @Param( { "false", "true" } )
+    public boolean metrics;
+
+    /**
+     * The model under test.
+     */
+    private ConcentrationModel model;
+
+    /**
+     * The next card to select.
+     */
+    private int cursor;
+
+    /**
+     * Build the model, register the observers and install the metrics.
+     *
+     * @param blackhole where the observers sink their notifications
+     */
+    @Setup
+    public void setup( Blackhole blackhole ) {
+        this.model = new ConcentrationModel( this.side, this.side, this.group,
+                                             42 );
+        for ( int i = 0; i < this.observers; ++i ) {
+            this.model.addObserver( new NullObserver( blackhole ) );
+        }
+        if ( this.metrics ) {
+            this.model.setMetrics( new MetricsRegistry() );
+        }
+        this.cursor = 0;
+    }
+
+    /**
+     * Select the cards in order, one per call.  The board is reset after
+     * each sweep so that the game never finishes; the reset is amortized
+     * over one sweep of the board.
+     */
+    @Benchmark
+    public void selectCard() {
+        this.model.selectCard( this.cursor );
+        if ( ++this.cursor == this.model.getNumCards() ) {
+            this.cursor = 0;
+            this.model.reset( 42 );
+        }
+    }
+
+    /**
+     * Select a card and take it back, leaving the board as it was.
+     */
+    @Benchmark
+    public void selectThenUndo() {
+        this.model.selectCard( 0 );
+        this.model.undo();
+    }
+
+    /**
+     * Turn every card face down and shuffle.
+     */
+    @Benchmark
+    public void reset() {
+        this.model.reset();
+    }
+
+    /**
+     * Copy the board.
+     *
+     * @return the copy
+     */
+    @Benchmark
+    public ArrayList< Card > getCards() {
+        return this.model.getCards();
+    }
+
+    /**
+     * Copy the board with every card face up.
+     *
+     * @return the copy
+     */
+    @Benchmark
+    public ArrayList< Card > getCheat() {
+        return this.model.getCheat();
+    }
+
+    /**
+     * Read every card through the board view, as a renderer does.
+     *
+     * @return a value depending on every card
+     */
+    @Benchmark
+    public int boardView() {
+        BoardView view = this.model.getBoardView();
+        int sum = 0;
+        for ( int i = 0; i < view.size(); ++i ) {
+            sum += view.getNumber( i );
+        }
+        return sum;
+    }
+
+    /**
+     * Read every card through the cheat view.
+     *
+     * @return a value depending on every card
+     */
+    @Benchmark
+    public int cheatView() {
+        BoardView view = this.model.getCheatView();
+        int sum = 0;
+        for ( int i = 0; i < view.size(); ++i ) {
+            sum += view.getNumber( i );
+        }
+        return sum;
+    }
+
+    /**
+     * Notify every observer once; cheat does nothing else.
+     */
+    @Benchmark
+    public void announce() {
+        this.model.cheat();
+    }
+}
@@ -0,0 +1,30 @@
+package bench;
+
+import model.ConcentrationModel;
+import model.Observer;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * An observer that does nothing but hand what it is told to a blackhole,
+ * so that the cost of notifying it is not optimized away.
+ *
+ * @author Adrian Burgos awb8593
+ */
+class NullObserver implements Observer< ConcentrationModel, Object > {
+    /**
+     * Where the notifications are sunk.
+     */
+    private final Blackhole blackhole;
+
+    /**
+     * @param blackhole where the notifications are sunk
+     */
+    NullObserver( Blackhole blackhole ) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void update( ConcentrationModel model, Object data ) {
+        this.blackhole.consume( data );
+    }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ptui.ConcentrationPTUI;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the PTUI rendering path.  Standard out is redirected to a
+ * stream that discards everything, so the numbers are the cost of
+ * building and writing a frame rather than of the terminal.
+ *
+ * @author Adrian Burgos awb8593
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PtuiBenchmark {
+    /**
+     * The length of a side of the (square) board.
+     */
+    @Param( { "4", "32", "256" } )
+    public int side;
+
+    /**
+     * The view under test.
+     */
+    private ConcentrationPTUI ptui;
+
+    /**
+     * The real standard out, restored after the run.
+     */
+    private PrintStream stdout;
+
+    /**
+     * Silence standard out and build the view.
+     */
+    @Setup
+    public void setup() {
+        this.stdout = System.out;
+        System.setOut( new PrintStream( OutputStream.nullOutputStream() ) );
+        this.ptui = new ConcentrationPTUI( this.side, this.side );
+    }
+
+    /**
+     * Restore standard out.
+     */
+    @TearDown
+    public void tearDown() {
+        System.setOut( this.stdout );
+    }
+
+    /**
+     * Render one frame, as the view does after every model change.
+     */
+    @Benchmark
+    public void displayBoard() {
+        this.ptui.update( null, null );
+    }
+}
@@ -0,0 +1,180 @@
+package bench;
+
+import gui.FirstFrame;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures time to first frame of the game's front ends.  Each run starts
+ * a fresh JVM with the system property {@code concentration.firstFrame}
+ * set to {@code exit}, so the front end prints a marker line as soon as
+ * its first frame is up and then stops.  The time from launching the
+ * process to reading the marker includes starting the JVM, loading the
+ * classes and building the first frame.  The runs of each entry point are
+ * summarised as min, median, mean and max.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar bench.StartupHarness
+ *     [--runs n] [--java path/to/java] [--module-path path]
+ *     [--image dir] [--cds archive.jsa] [ptui] [gui] [gui-fast]
+ * </pre>
+ * With no module path the front ends run from this harness's class path;
+ * with one they run as the Concentration module.  --image runs the module
+ * linked into a jlink image, such as the one the launcher profile builds
+ * with its class-data-sharing archive; --cds names an archive to use
+ * instead of the default one.  The GUI entry points need a display, and
+ * JavaFX must be on a module path or in the image, so with neither only
+ * the PTUI is timed by default.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class StartupHarness {
+    /**
+     * Run the harness.
+     *
+     * @param args the options and entry points described above
+     * @throws IOException          if a JVM cannot be started
+     * @throws InterruptedException if interrupted while waiting for one
+     */
+    public static void main( String[] args )
+            throws IOException, InterruptedException {
+        int runs = 10;
+        String java = System.getProperty( "java.home" ) + File.separator +
+                      "bin" + File.separator + "java";
+        String modulePath = null;
+        boolean image = false;
+        String cds = null;
+        List< String > entries = new ArrayList<>();
+        for ( int i = 0; i < args.length; ++i ) {
+            switch ( args[ i ] ) {
+                case "--runs":
+                    runs = Integer.parseInt( args[ ++i ] );
+                    break;
+                case "--java":
+                    java = args[ ++i ];
+                    break;
+                case "--module-path":
+                    modulePath = args[ ++i ];
+                    break;
+                case "--image":
+                    java = args[ ++i ] + File.separator + "bin" +
+                           File.separator + "java";
+                    image = true;
+                    break;
+                case "--cds":
+                    cds = args[ ++i ];
+                    break;
+                default:
+                    entries.add( args[ i ] );
+            }
+        }
+        if ( entries.isEmpty() ) {
+            entries = modulePath != null || image
+                    ? List.of( "ptui", "gui", "gui-fast" ) : List.of( "ptui" );
+        }
+        for ( String entry : entries ) {
+            List< String > command = command( java, modulePath, image, cds,
+                                              entry );
+            double[] millis = new double[ runs ];
+            for ( int r = 0; r < runs; ++r ) {
+                millis[ r ] = run( command );
+            }
+            Arrays.sort( millis );
+            System.out.printf(
+                    "%-9s min %7.1f  median %7.1f  mean %7.1f  max %7.1f ms%n",
+                    entry, millis[ 0 ], millis[ runs / 2 ],
+                    Arrays.stream( millis ).average().orElse( 0 ),
+                    millis[ runs - 1 ] );
+        }
+    }
+
+    /**
+     * @param java       the java launcher
+     * @param modulePath the module path, or null to use the class path
+     * @param image      true if the module is linked into the java image
+     * @param cds        the class-data-sharing archive, or null
+     * @param entry      ptui, gui or gui-fast
+     * @return the command that starts the entry point
+     */
+    private static List< String > command( String java, String modulePath,
+                                           boolean image, String cds,
+                                           String entry ) {
+        String main;
+        switch ( entry ) {
+            case "ptui":
+                main = "ptui.ConcentrationPTUI";
+                break;
+            case "gui":
+            case "gui-fast":
+                main = "gui.ConcentrationGUI";
+                break;
+            default:
+                throw new IllegalArgumentException( "Unknown entry " + entry );
+        }
+        List< String > command = new ArrayList<>();
+        command.add( java );
+        command.add( "-D" + FirstFrame.PROPERTY + "=exit" );
+        if ( cds != null ) {
+            command.add( "-XX:SharedArchiveFile=" + cds );
+        }
+        if ( modulePath != null ) {
+            command.addAll( List.of( "--module-path", modulePath ) );
+        }
+        if ( modulePath != null || image ) {
+            command.addAll( List.of( "-m", "Concentration/" + main ) );
+        }
+        else {
+            command.addAll( List.of(
+                    "-cp", System.getProperty( "java.class.path" ), main ) );
+        }
+        if ( entry.equals( "gui-fast" ) ) {
+            command.add( "--fast=true" );
+        }
+        return command;
+    }
+
+    /**
+     * Start one JVM and wait for its report.
+     *
+     * @param command the command to run
+     * @return the milliseconds from launch to its first frame
+     * @throws IOException          if it cannot be started or never reports
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static double run( List< String > command )
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder( command )
+                .redirectOutput( ProcessBuilder.Redirect.DISCARD )
+                .start();
+        process.getOutputStream().close();
+        long frame = 0;
+        StringBuilder errors = new StringBuilder();
+        try ( BufferedReader err = new BufferedReader(
+                new InputStreamReader( process.getErrorStream() ) ) ) {
+            String line;
+            while ( ( line = err.readLine() ) != null ) {
+                if ( frame == 0 && line.startsWith( FirstFrame.PREFIX ) ) {
+                    frame = System.nanoTime();
+                }
+                else {
+                    errors.append( line ).append( '\n' );
+                }
+            }
+        }
+        process.waitFor();
+        if ( frame == 0 ) {
+            throw new IOException( String.join( " ", command ) +
+                                   " did not report a first frame:\n" +
+                                   errors );
+        }
+        return ( frame - start ) / 1e6;
+    }
+}
@@ -0,0 +1,319 @@
+package broadcast;
+
+import model.ConcentrationModel;
+import model.ModelEvent;
+import model.Observer;
+
+import java.util.Arrays;
+
+/**
+ * Streams one game to any number of spectators.  The broadcaster is the
+ * game's only observer on their behalf: it encodes each change once into
+ * a {@link Frame} and hands the same frame to every {@link Subscription},
+ * each of which queues it in a ring buffer of its own.  Handing a frame
+ * over is a store into the ring, so a spectator that falls behind never
+ * holds up the game or the other spectators; when its ring is full it
+ * misses frames, and it is brought back up to date from the latest
+ * keyframe the next time it polls.
+ * <p>
+ * A keyframe is taken when the broadcaster is attached, on each reset
+ * and after every keyframe interval of deltas.  The latest keyframe and
+ * the deltas since it are kept, so a spectator that joins late, or has
+ * fallen behind, gets that keyframe followed by those deltas and then
+ * carries on from its ring.  Periodic keyframes only serve that catch-up;
+ * spectators that keep up are sent deltas alone, and a reset, which
+ * changes every card, as a keyframe.
+ * <p>
+ * The broadcaster reads the board while it is being notified, so it must
+ * be added as a synchronous observer, and the game must announce one
+ * change at a time.  Subscribing and unsubscribing may happen on any
+ * thread.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class Broadcaster
+        implements Observer< ConcentrationModel, Object > {
+    /**
+     * The number of deltas between periodic keyframes, unless told
+     * otherwise.
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+
+    /**
+     * The number of frames a subscription can queue, unless told
+     * otherwise.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * No subscriptions.
+     */
+    private static final Subscription[] NONE = new Subscription[ 0 ];
+
+    /**
+     * Turns changes into frames.
+     */
+    private final FrameEncoder encoder;
+
+    /**
+     * The number of deltas between periodic keyframes.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * The subscriptions; replaced, never changed, when one is added or
+     * removed.
+     */
+    private volatile Subscription[] subscribers = NONE;
+
+    /**
+     * The latest keyframe and the deltas since it.
+     */
+    private volatile Segment segment;
+
+    /**
+     * The number of the last change.
+     */
+    private volatile long sequence;
+
+    /**
+     * The number of keyframes taken.
+     */
+    private volatile long keyframes;
+
+    /**
+     * The number of bytes encoded, over all frames.
+     */
+    private volatile long bytes;
+
+    /**
+     * @param model            the game
+     * @param keyframeInterval the number of deltas between keyframes
+     */
+    private Broadcaster( ConcentrationModel model, int keyframeInterval ) {
+        this.encoder = new FrameEncoder( model );
+        this.keyframeInterval = keyframeInterval;
+        this.segment = new Segment( keyframe( 0 ), keyframeInterval );
+    }
+
+    /**
+     * Start broadcasting a game with the default keyframe interval.
+     *
+     * @param model the game
+     * @return the broadcaster, already observing the model
+     */
+    public static Broadcaster attach( ConcentrationModel model ) {
+        return attach( model, DEFAULT_KEYFRAME_INTERVAL );
+    }
+
+    /**
+     * Start broadcasting a game.  A longer keyframe interval takes fewer
+     * keyframes, each of which reads the whole board, but gives a
+     * spectator that catches up more deltas to apply.
+     *
+     * @param model            the game
+     * @param keyframeInterval the number of deltas between keyframes
+     * @return the broadcaster, already observing the model
+     * @throws IllegalArgumentException if keyframeInterval is not positive
+     */
+    public static Broadcaster attach( ConcentrationModel model,
+                                      int keyframeInterval ) {
+        if ( keyframeInterval <= 0 ) {
+            throw new IllegalArgumentException(
+                    "Bad keyframe interval: " + keyframeInterval );
+        }
+        Broadcaster broadcaster = new Broadcaster( model, keyframeInterval );
+        model.addObserver( broadcaster );
+        return broadcaster;
+    }
+
+    /**
+     * Encode a change and hand it to every subscription.  Cheating shows
+     * the player, not the spectators, where the cards are, so it sends
+     * nothing.
+     *
+     * @param model the game
+     * @param arg   the ModelEvent describing the change
+     */
+    @Override
+    public void update( ConcentrationModel model, Object arg ) {
+        if ( !( arg instanceof ModelEvent ) ) {
+            return;
+        }
+        ModelEvent event = ( ModelEvent ) arg;
+        if ( event.getType() == ModelEvent.Type.CHEAT ) {
+            return;
+        }
+        long sequence = this.sequence + 1;
+        Frame frame;
+        if ( event.getType() == ModelEvent.Type.RESET ) {
+            frame = keyframe( sequence );
+            this.segment = new Segment( frame, this.keyframeInterval );
+        }
+        else {
+            frame = this.encoder.delta( sequence, event );
+            this.bytes += frame.length();
+            Segment current = this.segment;
+            if ( current.count == current.deltas.length ) {
+                // the new keyframe already includes this change
+                this.segment = new Segment( keyframe( sequence ),
+                                            this.keyframeInterval );
+            }
+            else {
+                current.append( frame );
+            }
+        }
+        this.sequence = sequence;
+        // the segment is published first, so a subscription that misses
+        // this frame catches up to at least this change
+        for ( Subscription subscriber : this.subscribers ) {
+            subscriber.offer( frame );
+        }
+    }
+
+    /**
+     * @param sequence the number of the last change included
+     * @return a keyframe of the board as it is now
+     */
+    private Frame keyframe( long sequence ) {
+        Frame frame = this.encoder.keyframe( sequence );
+        ++this.keyframes;
+        this.bytes += frame.length();
+        return frame;
+    }
+
+    /**
+     * Subscribe with the default ring size.
+     *
+     * @return the subscription
+     */
+    public Subscription subscribe() {
+        return subscribe( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Subscribe.  The first frames polled bring the subscriber up to date:
+     * the latest keyframe and the deltas since it.
+     *
+     * @param capacity the number of frames the subscription can queue; a
+     *                 power of two
+     * @return the subscription
+     * @throws IllegalArgumentException if capacity is not a power of two
+     */
+    public synchronized Subscription subscribe( int capacity ) {
+        if ( capacity <= 0 || Integer.bitCount( capacity ) != 1 ) {
+            throw new IllegalArgumentException(
+                    "Bad ring capacity: " + capacity );
+        }
+        Subscription subscriber = new Subscription( this, capacity );
+        Subscription[] current = this.subscribers;
+        Subscription[] next = Arrays.copyOf( current, current.length + 1 );
+        next[ current.length ] = subscriber;
+        this.subscribers = next;
+        return subscriber;
+    }
+
+    /**
+     * Stop sending frames to a subscription.
+     *
+     * @param subscriber the subscription
+     */
+    synchronized void unsubscribe( Subscription subscriber ) {
+        Subscription[] current = this.subscribers;
+        for ( int i = 0; i < current.length; ++i ) {
+            if ( current[ i ] == subscriber ) {
+                Subscription[] next = new Subscription[ current.length - 1 ];
+                System.arraycopy( current, 0, next, 0, i );
+                System.arraycopy( current, i + 1, next, i,
+                                  next.length - i );
+                this.subscribers = next;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the latest keyframe and the deltas since it
+     */
+    Segment segment() {
+        return this.segment;
+    }
+
+    /**
+     * @return the number of subscriptions
+     */
+    public int getSubscriberCount() {
+        return this.subscribers.length;
+    }
+
+    /**
+     * @return the number of the last change
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * @return the number of keyframes taken
+     */
+    public long getKeyframes() {
+        return this.keyframes;
+    }
+
+    /**
+     * @return the number of bytes encoded, over all frames; each frame is
+     * counted once however many subscriptions it went to
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * A keyframe and the deltas taken since it.  Only the broadcaster
+     * appends; a subscription reads the deltas below the count it read.
+     */
+    static final class Segment {
+        /**
+         * The board when the segment started.
+         */
+        final Frame keyframe;
+
+        /**
+         * The deltas since the keyframe; entries below count are final.
+         */
+        final Frame[] deltas;
+
+        /**
+         * The number of deltas.
+         */
+        volatile int count;
+
+        /**
+         * @param keyframe the board when the segment starts
+         * @param capacity the most deltas it can hold
+         */
+        Segment( Frame keyframe, int capacity ) {
+            this.keyframe = keyframe;
+            this.deltas = new Frame[ capacity ];
+        }
+
+        /**
+         * @param delta the next delta
+         */
+        void append( Frame delta ) {
+            int n = this.count;
+            this.deltas[ n ] = delta;
+            this.count = n + 1;
+        }
+
+        /**
+         * @param count a number of deltas read from the segment
+         * @return the number of the last change those deltas bring a board
+         * up to
+         */
+        long lastSequence( int count ) {
+            return count == 0 ? this.keyframe.getSequence()
+                    : this.deltas[ count - 1 ].getSequence();
+        }
+    }
+}
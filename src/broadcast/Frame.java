@@ -0,0 +1,114 @@
+package broadcast;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One encoded change of a broadcast game, shared by every subscriber that
+ * receives it.  A frame is either a delta, which names only the cards a
+ * move turned over, or a keyframe, which describes the whole board as a
+ * spectator sees it.  Frames are numbered in the order the changes were
+ * made; a keyframe carries the number of the last change it includes.
+ * <p>
+ * A frame starts with a header byte, whose low three bits are the
+ * operation, whose top bit is set when the move completed a match and
+ * whose next bit is set when the game is won after the change, followed
+ * by the sequence number, the move count and the number of cards
+ * up, all as varints.  A delta then holds
+ * <pre>
+ * count, then per card: index &lt;&lt; 1 | face-up, and its number if face-up
+ * </pre>
+ * and a keyframe holds
+ * <pre>
+ * width, height, count of face-up cards,
+ * then per face-up card in order: gap from the previous index, number
+ * </pre>
+ * Face-down cards are never described, so a spectator learns no more than
+ * the player can see.  Frames are immutable and safe to share between
+ * threads.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class Frame {
+    /**
+     * The operation of a keyframe; the others are the ordinals of
+     * {@link model.ModelEvent.Type}.
+     */
+    static final int KEYFRAME = 7;
+
+    /**
+     * The bits of the header byte that hold the operation.
+     */
+    static final int OP_MASK = 7;
+
+    /**
+     * The bit of the header byte set when the move completed a match.
+     */
+    static final int MATCH = 0x80;
+
+    /**
+     * The bit of the header byte set when the game is won after the change.
+     */
+    static final int WON = 0x40;
+
+    /**
+     * The number of the change.
+     */
+    private final long sequence;
+
+    /**
+     * The encoding.
+     */
+    final byte[] bytes;
+
+    /**
+     * Create a frame.  The array is owned by the frame from now on.
+     *
+     * @param sequence the number of the change
+     * @param bytes    the encoding
+     */
+    Frame( long sequence, byte[] bytes ) {
+        this.sequence = sequence;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the number of the change; for a keyframe, of the last change
+     * it includes
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * @return true if the frame describes the whole board
+     */
+    public boolean isKeyframe() {
+        return ( this.bytes[ 0 ] & OP_MASK ) == KEYFRAME;
+    }
+
+    /**
+     * @return the size of the encoding, in bytes
+     */
+    public int length() {
+        return this.bytes.length;
+    }
+
+    /**
+     * Copy the encoding into a buffer, such as one headed for a socket.
+     *
+     * @param out where it goes, at its position
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void writeTo( ByteBuffer out ) {
+        out.put( this.bytes );
+    }
+
+    /**
+     * @return a short description of the frame
+     */
+    @Override
+    public String toString() {
+        return ( isKeyframe() ? "keyframe " : "delta " ) + this.sequence +
+               " (" + this.bytes.length + " bytes)";
+    }
+}
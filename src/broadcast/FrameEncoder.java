@@ -0,0 +1,143 @@
+package broadcast;
+
+import model.BoardView;
+import model.ConcentrationModel;
+import model.ModelEvent;
+import model.Varint;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes the changes of one game into {@link Frame}s.  The encoder reads
+ * the board as it is right after the change, so it must be called while
+ * the model is announcing it.  A scratch buffer, grown to the largest
+ * frame so far, is reused for every frame; each frame then gets an array
+ * of exactly its size.
+ *
+ * @author Adrian Burgos awb8593
+ */
+final class FrameEncoder {
+    /**
+     * The most bytes the header of a frame can take.
+     */
+    private static final int MAX_HEADER_BYTES =
+            1 + Varint.MAX_LONG_BYTES + 2 * Varint.MAX_BYTES;
+
+    /**
+     * The most bytes one card can take.
+     */
+    private static final int MAX_CARD_BYTES = 2 * Varint.MAX_BYTES;
+
+    /**
+     * The game being encoded.
+     */
+    private final ConcentrationModel model;
+
+    /**
+     * Where each frame is built.
+     */
+    private ByteBuffer scratch = ByteBuffer.allocate( 256 );
+
+    /**
+     * @param model the game being encoded
+     */
+    FrameEncoder( ConcentrationModel model ) {
+        this.model = model;
+    }
+
+    /**
+     * Encode the cards a move turned over.
+     *
+     * @param sequence the number of the change
+     * @param event    the change
+     * @return the frame
+     */
+    Frame delta( long sequence, ModelEvent event ) {
+        int count = event.flippedCount();
+        ByteBuffer out = begin( MAX_HEADER_BYTES + Varint.MAX_BYTES +
+                                count * MAX_CARD_BYTES );
+        header( out, event.getType().ordinal() |
+                     ( event.isMatch() ? Frame.MATCH : 0 ), sequence );
+        BoardView board = this.model.getBoardView();
+        Varint.put( out, count );
+        for ( int k = 0; k < count; ++k ) {
+            int card = event.flipped( k );
+            boolean up = board.isFaceUp( card );
+            Varint.put( out, card << 1 | ( up ? 1 : 0 ) );
+            if ( up ) {
+                Varint.put( out, board.getNumber( card ) );
+            }
+        }
+        return finish( sequence, out );
+    }
+
+    /**
+     * Encode the whole board as a spectator sees it.
+     *
+     * @param sequence the number of the last change included
+     * @return the frame
+     */
+    Frame keyframe( long sequence ) {
+        BoardView board = this.model.getBoardView();
+        int size = board.size();
+        int faceUp = 0;
+        for ( int i = 0; i < size; ++i ) {
+            if ( board.isFaceUp( i ) ) {
+                ++faceUp;
+            }
+        }
+        ByteBuffer out = begin( MAX_HEADER_BYTES + 3 * Varint.MAX_BYTES +
+                                faceUp * MAX_CARD_BYTES );
+        header( out, Frame.KEYFRAME, sequence );
+        Varint.put( out, board.getWidth() );
+        Varint.put( out, board.getHeight() );
+        Varint.put( out, faceUp );
+        int previous = -1;
+        for ( int i = 0; i < size; ++i ) {
+            if ( board.isFaceUp( i ) ) {
+                Varint.put( out, i - previous - 1 );
+                Varint.put( out, board.getNumber( i ) );
+                previous = i;
+            }
+        }
+        return finish( sequence, out );
+    }
+
+    /**
+     * @param bytes the most bytes the frame can take
+     * @return the scratch buffer, cleared and large enough
+     */
+    private ByteBuffer begin( int bytes ) {
+        if ( this.scratch.capacity() < bytes ) {
+            this.scratch = ByteBuffer.allocate(
+                    Math.max( bytes, 2 * this.scratch.capacity() ) );
+        }
+        this.scratch.clear();
+        return this.scratch;
+    }
+
+    /**
+     * Write the header every frame starts with.
+     *
+     * @param out      where it goes
+     * @param op       the operation and match bit
+     * @param sequence the number of the change
+     */
+    private void header( ByteBuffer out, int op, long sequence ) {
+        out.put( ( byte ) ( op | ( this.model.isWon() ? Frame.WON : 0 ) ) );
+        Varint.putLong( out, sequence );
+        Varint.put( out, this.model.getMoveCount() );
+        Varint.put( out, this.model.howManyCardsUp() );
+    }
+
+    /**
+     * @param sequence the number of the change
+     * @param out      the scratch buffer holding the encoding
+     * @return a frame with a copy of the encoding
+     */
+    private static Frame finish( long sequence, ByteBuffer out ) {
+        return new Frame( sequence,
+                          Arrays.copyOf( out.array(), out.position() ) );
+    }
+}
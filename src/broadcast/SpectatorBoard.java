@@ -0,0 +1,201 @@
+package broadcast;
+
+import model.BoardView;
+import model.Varint;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A spectator's copy of a broadcast game, rebuilt from its frames.  It
+ * starts empty, takes its shape from the first keyframe and then follows
+ * each delta.  The numbers of face-down cards are never sent, so the
+ * board knows only what the player can see.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class SpectatorBoard implements BoardView {
+    /**
+     * The number of columns on the board.
+     */
+    private int width;
+
+    /**
+     * The number of rows on the board.
+     */
+    private int height;
+
+    /**
+     * The number of each card, or -1 while it is face down.
+     */
+    private int[] numbers = new int[ 0 ];
+
+    /**
+     * The number of the last change applied, or -1 before the first
+     * keyframe.
+     */
+    private long sequence = -1;
+
+    /**
+     * The number of moves made.
+     */
+    private int moveCount;
+
+    /**
+     * The number of cards selected.
+     */
+    private int cardsUp;
+
+    /**
+     * true if the game is won.
+     */
+    private boolean won;
+
+    /**
+     * true if the last change completed a match.
+     */
+    private boolean matched;
+
+    /**
+     * Apply a frame.
+     *
+     * @param frame the frame
+     * @throws IllegalStateException if a delta does not follow the last
+     *                               change applied
+     */
+    public void apply( Frame frame ) {
+        apply( ByteBuffer.wrap( frame.bytes ) );
+    }
+
+    /**
+     * Apply a frame read from a buffer, such as one filled from a socket.
+     *
+     * @param in the encoding, at its position; it is read to the end of
+     *           the frame
+     * @throws IllegalStateException    if a delta does not follow the
+     *                                  last change applied
+     * @throws IllegalArgumentException if the encoding is malformed
+     */
+    public void apply( ByteBuffer in ) {
+        int header = in.get() & 0xFF;
+        long sequence = Varint.getLong( in );
+        boolean keyframe = ( header & Frame.OP_MASK ) == Frame.KEYFRAME;
+        if ( !keyframe && ( this.sequence < 0 ||
+                            sequence != this.sequence + 1 ) ) {
+            throw new IllegalStateException(
+                    "delta " + sequence + " does not follow " +
+                    this.sequence );
+        }
+        this.moveCount = Varint.get( in );
+        this.cardsUp = Varint.get( in );
+        if ( keyframe ) {
+            applyKeyframe( in );
+        }
+        else {
+            int count = Varint.get( in );
+            for ( int k = 0; k < count; ++k ) {
+                int cell = Varint.get( in );
+                this.numbers[ checkIndex( cell >>> 1 ) ] =
+                        ( cell & 1 ) != 0 ? Varint.get( in ) : -1;
+            }
+        }
+        this.sequence = sequence;
+        this.won = ( header & Frame.WON ) != 0;
+        this.matched = ( header & Frame.MATCH ) != 0;
+    }
+
+    /**
+     * Replace the board with the one a keyframe describes.
+     *
+     * @param in the keyframe, just after its header
+     */
+    private void applyKeyframe( ByteBuffer in ) {
+        int width = Varint.get( in );
+        int height = Varint.get( in );
+        if ( width != this.width || height != this.height ) {
+            this.width = width;
+            this.height = height;
+            this.numbers = new int[ Math.multiplyExact( width, height ) ];
+        }
+        Arrays.fill( this.numbers, -1 );
+        int faceUp = Varint.get( in );
+        int i = -1;
+        for ( int k = 0; k < faceUp; ++k ) {
+            i = checkIndex( i + 1 + Varint.get( in ) );
+            this.numbers[ i ] = Varint.get( in );
+        }
+    }
+
+    /**
+     * @param i a board index read from a frame
+     * @return i
+     * @throws IllegalArgumentException if i is not on the board
+     */
+    private int checkIndex( int i ) {
+        if ( i < 0 || i >= this.numbers.length ) {
+            throw new IllegalArgumentException( "no such card: " + i );
+        }
+        return i;
+    }
+
+    /**
+     * @return the number of the last change applied, or -1 before the
+     * first keyframe
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * @return the number of moves made
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * @return the number of cards selected
+     */
+    public int howManyCardsUp() {
+        return this.cardsUp;
+    }
+
+    /**
+     * @return true if the game is won
+     */
+    public boolean isWon() {
+        return this.won;
+    }
+
+    /**
+     * @return true if the last change completed a match
+     */
+    public boolean isMatch() {
+        return this.matched;
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public int size() {
+        return this.numbers.length;
+    }
+
+    @Override
+    public boolean isFaceUp( int n ) {
+        return this.numbers[ n ] >= 0;
+    }
+
+    @Override
+    public int getNumber( int n ) {
+        return this.numbers[ n ];
+    }
+}
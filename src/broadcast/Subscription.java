@@ -0,0 +1,211 @@
+package broadcast;
+
+import java.io.Closeable;
+
+/**
+ * One spectator's feed of a broadcast game: a ring buffer of frames
+ * filled by the {@link Broadcaster} and drained by {@link #poll()}.  The
+ * broadcaster never waits for a subscription.  When the ring is full the
+ * frame is dropped and the subscription is marked as lagging; the next
+ * poll throws away the frames still queued and starts again from the
+ * latest keyframe and the deltas since it.  A frame missing for any other
+ * reason is noticed from the sequence numbers and handled the same way,
+ * so the frames polled always rebuild the game exactly.
+ * <p>
+ * The ring has a single writer, the broadcaster, and a single reader:
+ * {@link #poll()} must not be called by two threads at once.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class Subscription implements Closeable {
+    /**
+     * The game this is a feed of.
+     */
+    private final Broadcaster broadcaster;
+
+    /**
+     * The queued frames, at their sequence in the ring modulo its size.
+     */
+    private final Frame[] ring;
+
+    /**
+     * The size of the ring less one.
+     */
+    private final int mask;
+
+    /**
+     * The position of the next frame to poll; only the reader writes it.
+     */
+    private volatile long head;
+
+    /**
+     * The position of the next frame to queue; only the broadcaster
+     * writes it.
+     */
+    private volatile long tail;
+
+    /**
+     * true when the queued frames should be thrown away for the latest
+     * keyframe; set at first, so a new subscriber catches up.
+     */
+    private volatile boolean lagging = true;
+
+    /**
+     * The number of frames dropped because the ring was full.
+     */
+    private volatile long overflows;
+
+    /**
+     * The number of the next change to hand out.
+     */
+    private long expected;
+
+    /**
+     * The segment being handed out to catch up, or null.
+     */
+    private Broadcaster.Segment replay;
+
+    /**
+     * The next delta of the replay to hand out, or -1 for its keyframe.
+     */
+    private int replayAt;
+
+    /**
+     * The number of deltas of the replay to hand out.
+     */
+    private int replayEnd;
+
+    /**
+     * The number of times the subscriber was brought up to date from a
+     * keyframe, including when it joined.
+     */
+    private long resyncs;
+
+    /**
+     * @param broadcaster the game this is a feed of
+     * @param capacity    the size of the ring, a power of two
+     */
+    Subscription( Broadcaster broadcaster, int capacity ) {
+        this.broadcaster = broadcaster;
+        this.ring = new Frame[ capacity ];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Queue a frame, or drop it and mark the subscription as lagging if
+     * the ring is full.
+     *
+     * @param frame the frame
+     */
+    void offer( Frame frame ) {
+        long t = this.tail;
+        if ( t - this.head >= this.ring.length ) {
+            this.lagging = true;
+            ++this.overflows;
+            return;
+        }
+        this.ring[ ( int ) t & this.mask ] = frame;
+        this.tail = t + 1;
+    }
+
+    /**
+     * Take the next frame to apply.  The frames polled form an unbroken
+     * run: a keyframe, then each delta after it, with more keyframes
+     * whenever the board was reset or the subscriber had to catch up.
+     *
+     * @return the frame, or null if there is none yet
+     */
+    public Frame poll() {
+        for ( ; ; ) {
+            if ( this.replay != null ) {
+                if ( this.replayAt < 0 ) {
+                    this.replayAt = 0;
+                    return this.replay.keyframe;
+                }
+                if ( this.replayAt < this.replayEnd ) {
+                    return this.replay.deltas[ this.replayAt++ ];
+                }
+                this.replay = null;
+            }
+            if ( this.lagging ) {
+                this.lagging = false;
+                skip();
+                catchUp();
+                continue;
+            }
+            long h = this.head;
+            if ( h == this.tail ) {
+                return null;
+            }
+            int slot = ( int ) h & this.mask;
+            Frame frame = this.ring[ slot ];
+            this.ring[ slot ] = null;
+            this.head = h + 1;
+            long sequence = frame.getSequence();
+            if ( sequence > this.expected ) {
+                // a frame was lost; the latest segment includes this one
+                catchUp();
+            }
+            else if ( sequence == this.expected ) {
+                this.expected = sequence + 1;
+                return frame;
+            }
+            // frames the catch-up already covered are passed over
+        }
+    }
+
+    /**
+     * Throw away every frame queued.
+     */
+    private void skip() {
+        long t = this.tail;
+        for ( long h = this.head; h < t; ++h ) {
+            this.ring[ ( int ) h & this.mask ] = null;
+        }
+        this.head = t;
+    }
+
+    /**
+     * Start handing out the latest keyframe and the deltas since it.
+     */
+    private void catchUp() {
+        Broadcaster.Segment segment = this.broadcaster.segment();
+        int count = segment.count;
+        this.replay = segment;
+        this.replayAt = -1;
+        this.replayEnd = count;
+        this.expected = segment.lastSequence( count ) + 1;
+        ++this.resyncs;
+    }
+
+    /**
+     * @return the number of frames queued and not yet polled
+     */
+    public int backlog() {
+        return ( int ) ( this.tail - this.head );
+    }
+
+    /**
+     * @return the number of frames dropped because the ring was full
+     */
+    public long getOverflows() {
+        return this.overflows;
+    }
+
+    /**
+     * @return the number of times the subscriber was brought up to date
+     * from a keyframe, including when it joined; read it on the thread
+     * that polls
+     */
+    public long getResyncs() {
+        return this.resyncs;
+    }
+
+    /**
+     * Stop receiving frames.
+     */
+    @Override
+    public void close() {
+        this.broadcaster.unsubscribe( this );
+    }
+}
@@ -0,0 +1,297 @@
+package eventlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only log of model operations, kept in fixed-size segment
+ * files that are memory-mapped for writing.  Every record is
+ * {@value #RECORD_BYTES} bytes: the game id (int), the operation (int)
+ * and an argument (long).  A segment is zero-filled when it is created,
+ * so the first record whose operation is 0 marks the end of the log.
+ * <p>
+ * Appending only copies the record into the mapping.  A background
+ * thread forces the mapping to disk at a fixed interval, so all the
+ * records appended during one interval are made durable by a single
+ * force (group commit).  A caller that must know its record is on disk
+ * can wait for it with {@link #awaitDurable(long)}.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class EventLog implements Closeable {
+    /**
+     * The size of a record, in bytes.
+     */
+    public static final int RECORD_BYTES = 16;
+
+    /**
+     * A game was started; the argument holds the width in the high 32
+     * bits and the height in the low 32 bits.
+     */
+    public static final int NEW_GAME = 1;
+
+    /**
+     * The board was reset; the argument is the shuffle seed.
+     */
+    public static final int RESET = 2;
+
+    /**
+     * A card was selected; the argument is its index.
+     */
+    public static final int SELECT = 3;
+
+    /**
+     * A selection was undone.
+     */
+    public static final int UNDO = 4;
+
+    /**
+     * The player cheated.
+     */
+    public static final int CHEAT = 5;
+
+    /**
+     * A whole move was taken back from the game history.
+     */
+    public static final int UNDO_MOVE = 6;
+
+    /**
+     * A move taken back was made again.
+     */
+    public static final int REDO_MOVE = 7;
+
+    /**
+     * The game just started matches cards in groups of other than 2; the
+     * argument is the group size.  It follows NEW_GAME.
+     */
+    public static final int GROUP_SIZE = 8;
+
+    /**
+     * The directory holding the segment files.
+     */
+    private final Path directory;
+
+    /**
+     * The size of each segment file, in bytes.
+     */
+    private final int segmentBytes;
+
+    /**
+     * The channel of the segment being written.
+     */
+    private FileChannel channel;
+
+    /**
+     * The mapping of the segment being written.
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * The number of the segment being written.
+     */
+    private int segmentNumber;
+
+    /**
+     * The number of records appended so far, over all segments.
+     */
+    private long appended;
+
+    /**
+     * The number of records known to be on disk.
+     */
+    private long durable;
+
+    /**
+     * true once the log has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Forces the mapping to disk at regular intervals.
+     */
+    private final Thread committer;
+
+    /**
+     * Open a log, continuing after the last record already in it.
+     *
+     * @param directory        where the segment files live
+     * @param segmentBytes     the size of each segment file
+     * @param commitIntervalMs how often appended records are forced to
+     *                         disk, in milliseconds
+     * @throws IOException if the segments cannot be opened
+     */
+    public EventLog( Path directory, int segmentBytes, long commitIntervalMs )
+            throws IOException {
+        if ( segmentBytes < RECORD_BYTES || segmentBytes % RECORD_BYTES != 0 ) {
+            throw new IllegalArgumentException(
+                    "segment size must be a multiple of " + RECORD_BYTES );
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories( directory );
+
+        int number = 0;
+        while ( Files.exists( segmentPath( directory, number + 1 ) ) ) {
+            ++number;
+        }
+        open( number );
+        int records = 0;
+        while ( records < recordsPerSegment() &&
+                this.segment.getInt( records * RECORD_BYTES + 4 ) != 0 ) {
+            ++records;
+        }
+        this.segment.position( records * RECORD_BYTES );
+        this.appended = ( long ) number * recordsPerSegment() + records;
+        this.durable = this.appended;
+
+        this.committer = new Thread( () -> commitLoop( commitIntervalMs ),
+                                     "event-log-commit" );
+        this.committer.setDaemon( true );
+        this.committer.start();
+    }
+
+    /**
+     * @param directory the log directory
+     * @param number    a segment number
+     * @return the path of that segment file
+     */
+    static Path segmentPath( Path directory, int number ) {
+        return directory.resolve( String.format( "%08d.seg", number ) );
+    }
+
+    /**
+     * @return the number of records that fit in one segment
+     */
+    private int recordsPerSegment() {
+        return this.segmentBytes / RECORD_BYTES;
+    }
+
+    /**
+     * Map a segment for writing, creating it if needed.
+     *
+     * @param number the segment number
+     * @throws IOException if the segment cannot be mapped
+     */
+    private void open( int number ) throws IOException {
+        this.channel = FileChannel.open( segmentPath( this.directory, number ),
+                                         StandardOpenOption.CREATE,
+                                         StandardOpenOption.READ,
+                                         StandardOpenOption.WRITE );
+        this.segment = this.channel.map( FileChannel.MapMode.READ_WRITE, 0,
+                                         this.segmentBytes );
+        this.segmentNumber = number;
+    }
+
+    /**
+     * Append a record.
+     *
+     * @param gameId    the game the operation belongs to
+     * @param operation one of the operation constants
+     * @param argument  the operation's argument
+     * @return the sequence number of the record, for
+     * {@link #awaitDurable(long)}
+     * @throws IOException if a new segment cannot be created
+     */
+    public synchronized long append( int gameId, int operation, long argument )
+            throws IOException {
+        if ( this.closed ) {
+            throw new IOException( "event log is closed" );
+        }
+        if ( !this.segment.hasRemaining() ) {
+            this.segment.force();
+            this.channel.close();
+            open( this.segmentNumber + 1 );
+        }
+        this.segment.putInt( gameId ).putInt( operation ).putLong( argument );
+        return ++this.appended;
+    }
+
+    /**
+     * Wait until a record is on disk.
+     *
+     * @param sequence the number returned when the record was appended
+     * @throws InterruptedException if the wait is interrupted
+     */
+    public synchronized void awaitDurable( long sequence )
+            throws InterruptedException {
+        while ( this.durable < sequence && !this.closed ) {
+            wait();
+        }
+    }
+
+    /**
+     * Force every record appended so far to disk now.
+     */
+    public synchronized void commit() {
+        this.segment.force();
+        this.durable = this.appended;
+        notifyAll();
+    }
+
+    /**
+     * The body of the committer thread.
+     *
+     * @param intervalMs the time between forces, in milliseconds
+     */
+    private void commitLoop( long intervalMs ) {
+        for ( ; ; ) {
+            MappedByteBuffer toForce;
+            long target;
+            synchronized ( this ) {
+                if ( this.closed ) {
+                    return;
+                }
+                toForce = this.segment;
+                target = this.appended;
+            }
+            if ( target > this.durableSnapshot() ) {
+                // appends carry on while the mapping is forced
+                toForce.force();
+                synchronized ( this ) {
+                    if ( target > this.durable ) {
+                        this.durable = target;
+                    }
+                    notifyAll();
+                }
+            }
+            try {
+                Thread.sleep( intervalMs );
+            }
+            catch ( InterruptedException e ) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of records known to be on disk
+     */
+    private synchronized long durableSnapshot() {
+        return this.durable;
+    }
+
+    /**
+     * Force the log to disk and stop the committer.
+     *
+     * @throws IOException if the segment cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized ( this ) {
+            if ( this.closed ) {
+                return;
+            }
+            this.segment.force();
+            this.durable = this.appended;
+            this.closed = true;
+            notifyAll();
+        }
+        this.committer.interrupt();
+        this.channel.close();
+    }
+}
@@ -0,0 +1,106 @@
+package eventlog;
+
+import model.ConcentrationModel;
+import model.ModelEvent;
+import model.Observer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Records every operation on one game into an {@link EventLog}.  Together
+ * with the board shape and the shuffle seeds it logs, the records are
+ * enough to rebuild the game at any point with an {@link EventReplayer}.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class EventRecorder implements Observer< ConcentrationModel, Object > {
+    /**
+     * Where the records go.
+     */
+    private final EventLog log;
+
+    /**
+     * The id of the game being recorded.
+     */
+    private final int gameId;
+
+    /**
+     * @param log    where the records go
+     * @param gameId the id of the game being recorded
+     */
+    private EventRecorder( EventLog log, int gameId ) {
+        this.log = log;
+        this.gameId = gameId;
+    }
+
+    /**
+     * Start recording a game.  The game must not have been played yet, so
+     * that its current deal is the start of the record.
+     *
+     * @param log    where the records go
+     * @param gameId the id under which to record the game
+     * @param model  the game
+     * @return the recorder, already observing the model
+     * @throws IOException           if the log cannot be written
+     * @throws IllegalStateException if a move has already been made
+     */
+    public static EventRecorder attach( EventLog log, int gameId,
+                                        ConcentrationModel model )
+            throws IOException {
+        if ( model.getMoveCount() != 0 || model.howManyCardsUp() != 0 ) {
+            throw new IllegalStateException(
+                    "a game must be recorded from its first move" );
+        }
+        EventRecorder recorder = new EventRecorder( log, gameId );
+        log.append( gameId, EventLog.NEW_GAME,
+                    ( long ) model.getWidth() << 32 | model.getHeight() );
+        if ( model.getGroupSize() != ConcentrationModel.DEFAULT_GROUP_SIZE ) {
+            log.append( gameId, EventLog.GROUP_SIZE, model.getGroupSize() );
+        }
+        log.append( gameId, EventLog.RESET, model.getSeed() );
+        model.addObserver( recorder );
+        return recorder;
+    }
+
+    /**
+     * Append a record for the operation that was just applied.
+     *
+     * @param model the game
+     * @param arg   the ModelEvent describing the operation
+     */
+    @Override
+    public void update( ConcentrationModel model, Object arg ) {
+        if ( !( arg instanceof ModelEvent ) ) {
+            return;
+        }
+        ModelEvent event = ( ModelEvent ) arg;
+        try {
+            switch ( event.getType() ) {
+                case SELECT:
+                    this.log.append( this.gameId, EventLog.SELECT,
+                                     event.getCard() );
+                    break;
+                case UNDO:
+                    this.log.append( this.gameId, EventLog.UNDO, 0 );
+                    break;
+                case RESET:
+                    this.log.append( this.gameId, EventLog.RESET,
+                                     event.getSeed() );
+                    break;
+                case CHEAT:
+                    this.log.append( this.gameId, EventLog.CHEAT, 0 );
+                    break;
+                case UNDO_MOVE:
+                    this.log.append( this.gameId, EventLog.UNDO_MOVE, 0 );
+                    break;
+                case REDO_MOVE:
+                    this.log.append( this.gameId, EventLog.REDO_MOVE, 0 );
+                    break;
+            }
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+}
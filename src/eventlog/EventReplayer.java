@@ -0,0 +1,186 @@
+package eventlog;
+
+import model.ConcentrationModel;
+import ptui.BoardText;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebuilds games from the segments of an {@link EventLog}.  The segments
+ * are mapped read-only and the records are read in place, so a replay
+ * copies nothing out of the log.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class EventReplayer implements Closeable {
+    /**
+     * The read-only mappings of the segments, oldest first.
+     */
+    private final List< MappedByteBuffer > segments;
+
+    /**
+     * The open segment channels.
+     */
+    private final List< FileChannel > channels;
+
+    /**
+     * Map every segment of a log.
+     *
+     * @param directory where the segment files live
+     * @throws IOException if a segment cannot be mapped
+     */
+    public EventReplayer( Path directory ) throws IOException {
+        this.segments = new ArrayList<>();
+        this.channels = new ArrayList<>();
+        for ( int n = 0; Files.exists( EventLog.segmentPath( directory, n ) );
+              ++n ) {
+            FileChannel channel =
+                    FileChannel.open( EventLog.segmentPath( directory, n ) );
+            this.channels.add( channel );
+            this.segments.add( channel.map( FileChannel.MapMode.READ_ONLY, 0,
+                                            channel.size() ) );
+        }
+    }
+
+    /**
+     * Count the records of a game after the one that started it.
+     *
+     * @param gameId the id of the game
+     * @return the number of operations recorded for it
+     */
+    public long recordCount( int gameId ) {
+        long count = 0;
+        for ( MappedByteBuffer segment : this.segments ) {
+            for ( int at = 0; at + EventLog.RECORD_BYTES <= segment.limit();
+                  at += EventLog.RECORD_BYTES ) {
+                int operation = segment.getInt( at + 4 );
+                if ( operation == 0 ) {
+                    return count;
+                }
+                if ( segment.getInt( at ) == gameId &&
+                     operation != EventLog.NEW_GAME &&
+                     operation != EventLog.GROUP_SIZE ) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Rebuild a game as it was after a number of its operations.  The
+     * initial deal counts as the first operation, and is always applied.
+     * The board is not built until that deal's record, so it is shuffled
+     * once, from the logged seed.
+     *
+     * @param gameId     the id of the game
+     * @param operations how many of the game's recorded operations to
+     *                   apply; Long.MAX_VALUE for the latest state
+     * @return the game, or null if the log holds no game with that id
+     */
+    public ConcentrationModel replay( int gameId, long operations ) {
+        ConcentrationModel model = null;
+        int width = 0;
+        int height = 0;
+        int groupSize = ConcentrationModel.DEFAULT_GROUP_SIZE;
+        long applied = 0;
+        for ( MappedByteBuffer segment : this.segments ) {
+            for ( int at = 0; at + EventLog.RECORD_BYTES <= segment.limit();
+                  at += EventLog.RECORD_BYTES ) {
+                int operation = segment.getInt( at + 4 );
+                if ( operation == 0 ||
+                     model != null && applied >= operations ) {
+                    return model;
+                }
+                if ( segment.getInt( at ) != gameId ) {
+                    continue;
+                }
+                long argument = segment.getLong( at + 8 );
+                switch ( operation ) {
+                    case EventLog.NEW_GAME:
+                        // the RESET that follows deals the board
+                        model = null;
+                        width = ( int ) ( argument >>> 32 );
+                        height = ( int ) argument;
+                        groupSize = ConcentrationModel.DEFAULT_GROUP_SIZE;
+                        continue;
+                    case EventLog.GROUP_SIZE:
+                        groupSize = ( int ) argument;
+                        continue;
+                    case EventLog.RESET:
+                        if ( model == null ) {
+                            model = new ConcentrationModel( width, height,
+                                                            groupSize,
+                                                            argument );
+                        }
+                        else {
+                            model.reset( argument );
+                        }
+                        break;
+                    case EventLog.SELECT:
+                        model.selectCard( ( int ) argument );
+                        break;
+                    case EventLog.UNDO:
+                        model.undo();
+                        break;
+                    case EventLog.CHEAT:
+                        model.cheat();
+                        break;
+                    case EventLog.UNDO_MOVE:
+                        model.undoMove();
+                        break;
+                    case EventLog.REDO_MOVE:
+                        model.redoMove();
+                        break;
+                }
+                ++applied;
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Unmap the log.
+     *
+     * @throws IOException if a segment cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        for ( FileChannel channel : this.channels ) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Print a game as it was after a number of its operations.
+     *
+     * @param args directory gameId [operations]
+     * @throws IOException if the log cannot be read
+     */
+    public static void main( String[] args ) throws IOException {
+        int gameId = Integer.parseInt( args[ 1 ] );
+        long operations = args.length > 2 ? Long.parseLong( args[ 2 ] )
+                : Long.MAX_VALUE;
+        try ( EventReplayer replayer = new EventReplayer( Paths.get( args[ 0 ] ) ) ) {
+            ConcentrationModel model = replayer.replay( gameId, operations );
+            if ( model == null ) {
+                System.out.println( "no game " + gameId );
+                return;
+            }
+            StringBuilder board = new StringBuilder();
+            BoardText.appendBoard( board, model.getMoveCount(),
+                                   model.howManyCardsUp(),
+                                   model.isMismatched(),
+                                   model.getBoardView() );
+            System.out.print( board );
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package gui;
+
+import javafx.geometry.Orientation;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import model.BoardView;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A board drawn on a single Canvas the size of the viewport. Only the cells that can be seen are drawn, and a click is
+ * turned into a card index by arithmetic on the scroll position, so memory and frame time depend on the size of the
+ * window rather than on the number of cards. The board scrolls with the scroll bars or the mouse wheel and zooms with
+ * ctrl + wheel or the + and - keys.
+ *
+ * @author Adrian Burgos awb8593
+ */
+class CanvasBoard extends Region {
+
+    /**
+     * the side of a card, in pixels, at zoom 1
+     */
+    private static final double CELL = 64;
+
+    /**
+     * the space between cards, as a fraction of the side of a card
+     */
+    private static final double GAP = 1.0 / 16;
+
+    /**
+     * the smallest and largest zoom
+     */
+    private static final double MIN_ZOOM = 1.0 / 8;
+    private static final double MAX_ZOOM = 4;
+
+    /**
+     * the board being drawn
+     */
+    private final BoardView board;
+
+    /**
+     * the back of the cards followed by the faces
+     */
+    private final ImageAtlas atlas;
+
+    /**
+     * the number of faces in the atlas
+     */
+    private final int faces;
+
+    /**
+     * told the index of a card that was clicked
+     */
+    private final IntConsumer onSelect;
+
+    /**
+     * the drawing surface, as large as the viewport
+     */
+    private final Canvas canvas = new Canvas();
+
+    /**
+     * the scroll bars; their values are the scroll position in pixels
+     */
+    private final ScrollBar horizontal = new ScrollBar();
+    private final ScrollBar vertical = new ScrollBar();
+
+    /**
+     * the current zoom
+     */
+    private double zoom = 1;
+
+    /**
+     * @param board the board to draw
+     * @param atlas the back of the cards at sprite 0, followed by the faces
+     * @param onSelect told the index of each card that is clicked
+     */
+    CanvasBoard(BoardView board, ImageAtlas atlas, IntConsumer onSelect) {
+        this.board = board;
+        this.atlas = atlas;
+        this.faces = atlas.size() - 1;
+        this.onSelect = onSelect;
+        this.vertical.setOrientation(Orientation.VERTICAL);
+        this.horizontal.valueProperty().addListener(o -> redraw());
+        this.vertical.valueProperty().addListener(o -> redraw());
+        this.canvas.setOnMouseClicked(this::click);
+        this.canvas.setOnScroll(this::scroll);
+        setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.PLUS || e.getCode() == KeyCode.EQUALS || e.getCode() == KeyCode.ADD) {
+                zoomAt(this.zoom * 1.25, 0, 0);
+            } else if (e.getCode() == KeyCode.MINUS || e.getCode() == KeyCode.SUBTRACT) {
+                zoomAt(this.zoom / 1.25, 0, 0);
+            }
+        });
+        setFocusTraversable(true);
+        getChildren().addAll(this.canvas, this.horizontal, this.vertical);
+        setPrefSize(Math.min(800, board.getWidth() * pitch() + 16), Math.min(600, board.getHeight() * pitch() + 16));
+    }
+
+    /**
+     * @return the distance from one card to the next, in pixels
+     */
+    private double pitch() {
+        return CELL * this.zoom * (1 + GAP);
+    }
+
+    /**
+     * sizes the canvas to the viewport and the scroll bars to the board
+     */
+    @Override
+    protected void layoutChildren() {
+        double bar = this.vertical.prefWidth(-1);
+        double w = Math.max(0, getWidth() - bar);
+        double h = Math.max(0, getHeight() - bar);
+        this.canvas.setWidth(w);
+        this.canvas.setHeight(h);
+        this.vertical.resizeRelocate(w, 0, bar, h);
+        this.horizontal.resizeRelocate(0, h, w, bar);
+        updateScrollBars();
+        redraw();
+    }
+
+    /**
+     * fits the scroll ranges to the board at the current zoom
+     */
+    private void updateScrollBars() {
+        double w = this.canvas.getWidth();
+        double h = this.canvas.getHeight();
+        double contentWidth = this.board.getWidth() * pitch();
+        double contentHeight = this.board.getHeight() * pitch();
+        this.horizontal.setMax(Math.max(0, contentWidth - w));
+        this.vertical.setMax(Math.max(0, contentHeight - h));
+        this.horizontal.setVisibleAmount(w);
+        this.vertical.setVisibleAmount(h);
+        this.horizontal.setUnitIncrement(pitch());
+        this.vertical.setUnitIncrement(pitch());
+        this.horizontal.setBlockIncrement(w);
+        this.vertical.setBlockIncrement(h);
+    }
+
+    /**
+     * draws every visible card
+     */
+    void redraw() {
+        GraphicsContext g = this.canvas.getGraphicsContext2D();
+        double w = this.canvas.getWidth();
+        double h = this.canvas.getHeight();
+        g.setFill(Color.WHITESMOKE);
+        g.fillRect(0, 0, w, h);
+        double pitch = pitch();
+        double x0 = this.horizontal.getValue();
+        double y0 = this.vertical.getValue();
+        int firstCol = (int) (x0 / pitch);
+        int firstRow = (int) (y0 / pitch);
+        int lastCol = Math.min(this.board.getWidth() - 1, (int) ((x0 + w) / pitch));
+        int lastRow = Math.min(this.board.getHeight() - 1, (int) ((y0 + h) / pitch));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                drawCard(g, row * this.board.getWidth() + col, col * pitch - x0, row * pitch - y0);
+            }
+        }
+    }
+
+    /**
+     * draws one card again if it can be seen
+     *
+     * @param i the index of the card
+     */
+    void redrawCard(int i) {
+        double pitch = pitch();
+        double x = (i % this.board.getWidth()) * pitch - this.horizontal.getValue();
+        double y = (i / this.board.getWidth()) * pitch - this.vertical.getValue();
+        if (x + pitch < 0 || y + pitch < 0 || x > this.canvas.getWidth() || y > this.canvas.getHeight()) {
+            return;
+        }
+        drawCard(this.canvas.getGraphicsContext2D(), i, x, y);
+    }
+
+    /**
+     * draws the face or the back of a card, whichever the board shows, scaled to fit its cell
+     *
+     * @param g where to draw
+     * @param i the index of the card
+     * @param x the left of its cell on the canvas
+     * @param y the top of its cell on the canvas
+     */
+    private void drawCard(GraphicsContext g, int i, double x, double y) {
+        double cell = CELL * this.zoom;
+        g.setFill(Color.WHITESMOKE);
+        g.fillRect(x, y, cell, cell);
+        int sprite = this.board.isFaceUp(i) ? 1 + this.board.getNumber(i) % this.faces : 0;
+        Rectangle2D vp = this.atlas.viewport(sprite);
+        double scale = Math.min(cell / vp.getWidth(), cell / vp.getHeight());
+        double dw = vp.getWidth() * scale;
+        double dh = vp.getHeight() * scale;
+        g.drawImage(this.atlas.getImage(), vp.getMinX(), vp.getMinY(), vp.getWidth(), vp.getHeight(),
+                x + (cell - dw) / 2, y + (cell - dh) / 2, dw, dh);
+    }
+
+    /**
+     * selects the card under the pointer, if the click was on a card rather than between cards
+     *
+     * @param e the click
+     */
+    private void click(MouseEvent e) {
+        requestFocus();
+        double pitch = pitch();
+        double x = e.getX() + this.horizontal.getValue();
+        double y = e.getY() + this.vertical.getValue();
+        int col = (int) (x / pitch);
+        int row = (int) (y / pitch);
+        boolean onCard = x - col * pitch < CELL * this.zoom && y - row * pitch < CELL * this.zoom;
+        if (onCard && col < this.board.getWidth() && row < this.board.getHeight()) {
+            this.onSelect.accept(row * this.board.getWidth() + col);
+        }
+    }
+
+    /**
+     * scrolls with the wheel, or zooms around the pointer when ctrl is held
+     *
+     * @param e the wheel event
+     */
+    private void scroll(ScrollEvent e) {
+        if (e.isControlDown()) {
+            zoomAt(e.getDeltaY() > 0 ? this.zoom * 1.25 : this.zoom / 1.25, e.getX(), e.getY());
+        } else {
+            this.horizontal.setValue(clamp(this.horizontal, this.horizontal.getValue() - e.getDeltaX()));
+            this.vertical.setValue(clamp(this.vertical, this.vertical.getValue() - e.getDeltaY()));
+        }
+        e.consume();
+    }
+
+    /**
+     * changes the zoom, keeping the point of the board under (x, y) on the canvas where it is
+     *
+     * @param zoom the new zoom
+     * @param x a point on the canvas
+     * @param y a point on the canvas
+     */
+    private void zoomAt(double zoom, double x, double y) {
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+        double ratio = zoom / this.zoom;
+        double sx = (this.horizontal.getValue() + x) * ratio - x;
+        double sy = (this.vertical.getValue() + y) * ratio - y;
+        this.zoom = zoom;
+        updateScrollBars();
+        this.horizontal.setValue(clamp(this.horizontal, sx));
+        this.vertical.setValue(clamp(this.vertical, sy));
+        redraw();
+    }
+
+    /**
+     * @param bar a scroll bar
+     * @param value a scroll position
+     * @return the position limited to the bar's range
+     */
+    private static double clamp(ScrollBar bar, double value) {
+        return Math.max(bar.getMin(), Math.min(bar.getMax(), value));
+    }
+}
@@ -0,0 +1,60 @@
+package gui;
+
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import model.BoardView;
+import model.ModelEvent;
+
+/**
+ * The cheat window, built once and kept for the whole game. It draws the model's cheat view on a canvas board, so
+ * showing it again costs one repaint: no new stage, scene, nodes or decoded images. While it is open it follows the
+ * model, repainting in place when the board is shuffled.
+ *
+ * @author Adrian Burgos awb8593
+ */
+class CheatPanel {
+
+    /**
+     * the window, hidden rather than closed
+     */
+    private final Stage stage = new Stage();
+
+    /**
+     * the board with every card face up
+     */
+    private final CanvasBoard board;
+
+    /**
+     * @param cheatView a live view of the board with every card showing its face
+     * @param atlas the back of the cards at sprite 0, followed by the faces
+     */
+    CheatPanel(BoardView cheatView, ImageAtlas atlas) {
+        this.board = new CanvasBoard(cheatView, atlas, i -> {
+        });
+        this.stage.setTitle("Cheat Window!");
+        this.stage.setScene(new Scene(this.board));
+    }
+
+    /**
+     * shows the panel, or brings it to the front if it is already showing
+     */
+    void show() {
+        if (this.stage.isShowing()) {
+            this.stage.toFront();
+        } else {
+            this.board.redraw();
+            this.stage.show();
+        }
+    }
+
+    /**
+     * keeps the panel in step with the model; only a new deal changes where the cards are
+     *
+     * @param event the change, or null if the whole board may have changed
+     */
+    void update(ModelEvent event) {
+        if (this.stage.isShowing() && (event == null || event.getType() == ModelEvent.Type.RESET)) {
+            this.board.redraw();
+        }
+    }
+}
@@ -7,14 +7,16 @@ import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
-import model.Card;
+import model.BoardView;
 import model.ConcentrationModel;
+import model.ModelEvent;
 import model.Observer;
 
 import java.util.*;
@@ -32,17 +34,91 @@ public class ConcentrationGUI extends Application
      */
     private ConcentrationModel model;
 
+    /**
+     * resource names of the pokemon images that will appear on the face of each card
+     */
+    private static final String[] FACES = {"cinderace.png", "ditto.png", "grimm.png", "luxray.png",
+            "obstagoon.png", "sceptile.png", "tapu.png", "zarude.png"};
+
+    /**
+     * resource name of the image on the back of each card
+     */
+    private static final String BACK = "pokeball.png";
+
+    /**
+     * boards with more cards than this are drawn on a canvas unless --canvas says otherwise
+     */
+    private static final int CANVAS_CARDS = 1024;
+
+    /**
+     * the words for the card to select next, by how many are up
+     */
+    private static final String[] ORDINALS = {"First", "Second", "Third", "Fourth", "Fifth", "Sixth", "Seventh",
+            "Eighth"};
+
+    /**
+     * the number of columns and rows on the board
+     */
+    private int width;
+    private int height;
+
+    /**
+     * the number of cards in a matching group
+     */
+    private int group;
+
+    /**
+     * true to show the board before the model is built and the face images are decoded
+     */
+    private boolean fast;
+
+    /**
+     * true to draw the board on a canvas, and true to pack the card images into an atlas
+     */
+    private boolean canvas;
+    private boolean useAtlas;
+
+    /**
+     * the window's layout, whose center is the board
+     */
+    private BorderPane layout;
+
+    /**
+     * the card buttons and the reset, undo and cheat buttons, disabled until there is a model to play
+     */
+    private GridPane cards;
+    private HBox buttons;
+
     /**
      * list that the cards will be in
      */
     private ArrayList<Button> cardList;
-    private ArrayList<Button> cheatCardList;
 
     /**
-     * list of pokemon images that will appear on the face of each card
+     * the image view inside each card button, reused for every flip
+     */
+    private ArrayList<ImageView> cardViews;
+
+    /**
+     * list of pokemon images that will appear on the face of each card, shared through the image cache
      */
     private ArrayList<Image> images;
 
+    /**
+     * the back of the cards followed by the faces packed into one image, or null when the images are used separately
+     */
+    private ImageAtlas atlas;
+
+    /**
+     * the board drawn on a canvas, or null when each card is a button
+     */
+    private CanvasBoard canvasBoard;
+
+    /**
+     * the cheat window, built on the first cheat and reused after that
+     */
+    private CheatPanel cheatPanel;
+
     /**
      * labels that are initalized in start and updated in update as the game is played
      */
@@ -50,24 +126,122 @@ public class ConcentrationGUI extends Application
     private Label moves;
 
     /**
+     * @return the back of the cards followed by the faces
+     */
+    private static String[] sprites() {
+        String[] sprites = new String[FACES.length + 1];
+        sprites[0] = BACK;
+        System.arraycopy(FACES, 0, sprites, 1, FACES.length);
+        return sprites;
+    }
+
+    /**
+     * @return the atlas of the back of the cards followed by the faces, decoded and packed only once
+     */
+    private static ImageAtlas spriteAtlas() {
+        return ImageCache.atlas(sprites());
+    }
+
+    /**
+     * shows a pokemon in an existing image view without decoding anything
      *
-     * @param i the index of the image I am getting from the image list
-     * @return returns an ImageView of the image selected from the list of pictures
+     * @param view the image view to reuse
+     * @param i the number on the card
      */
-    private ImageView getImageView(int i) {
-        return new ImageView(this.images.get(i));
+    private void setFace(ImageView view, int i) {
+        if (this.atlas != null) {
+            this.atlas.show(view, 1 + i % FACES.length);
+        } else {
+            view.setImage(this.images.get(i % this.images.size()));
+            view.setViewport(null);
+        }
+    }
+
+    /**
+     * shows the back of a card in an existing image view without decoding anything
+     *
+     * @param view the image view to reuse
+     */
+    private void setBack(ImageView view) {
+        if (this.atlas != null) {
+            this.atlas.show(view, 0);
+        } else {
+            view.setImage(ImageCache.get(BACK));
+            view.setViewport(null);
+        }
     }
 
     /**
      * process command line args, pre GUI setup
+     * the optional args are the width and height of the board; --atlas=true packs the card images into one sprite atlas;
+     * --canvas=true draws the board on a canvas, which is the default for large boards; --fast=true shows the board
+     * first and builds the model and decodes the faces after the first frame; --group=k matches cards in groups of k
      *
      * @throws Exception
      */
     @Override
     public void init() throws Exception {
+        List<String> args = getParameters().getUnnamed();
+        Map<String, String> named = getParameters().getNamed();
+        this.width = args.size() >= 2 ? Integer.parseInt(args.get(0)) : ConcentrationModel.BOARD_SIZE;
+        this.height = args.size() >= 2 ? Integer.parseInt(args.get(1)) : ConcentrationModel.BOARD_SIZE;
+        this.group = named.containsKey("group") ? Integer.parseInt(named.get("group"))
+                : ConcentrationModel.DEFAULT_GROUP_SIZE;
+        this.fast = Boolean.parseBoolean(named.get("fast"));
+        String canvasArg = named.get("canvas");
+        this.canvas = canvasArg != null ? Boolean.parseBoolean(canvasArg) : this.width * this.height > CANVAS_CARDS;
+        this.useAtlas = this.canvas || Boolean.parseBoolean(named.get("atlas"));
+        if (!this.fast) {
+            connect();
+        }
+    }
+
+    /**
+     * builds the model and connects the view to it
+     */
+    private void connect() {
         System.out.println("init: Initialize and connect to model!");
-        this.model = new ConcentrationModel();
-        this.model.addObserver( this );
+        this.model = new ConcentrationModel(this.width, this.height, this.group, ConcentrationModel.nextSeed());
+        // updates run on the FX thread after the click handler returns
+        this.model.addObserver( this, Platform::runLater );
+    }
+
+    /**
+     * finishes a fast start once the first frame is up: builds the model, enables the controls and shows the board as
+     * the model has it. Nothing waits for the faces to decode: the buttons show the images one by one until the atlas
+     * is packed, and the canvas, which draws only from the atlas, comes up once it is.
+     */
+    private void connectLater() {
+        connect();
+        if (!this.canvas) {
+            showModel();
+        }
+        if (this.useAtlas) {
+            ImageCache.atlasWhenLoaded(atlas -> {
+                this.atlas = atlas;
+                if (this.canvas) {
+                    showCanvas();
+                }
+                showModel();
+            }, sprites());
+        }
+    }
+
+    /**
+     * enables the controls and shows the board as the model has it
+     */
+    private void showModel() {
+        this.cards.setDisable(false);
+        this.buttons.setDisable(false);
+        initializeView();
+    }
+
+    /**
+     * puts the board, drawn on a canvas, in the center of the window
+     */
+    private void showCanvas() {
+        this.canvasBoard = new CanvasBoard(this.model.getBoardView(), this.atlas, this.model::selectCard);
+        this.layout.setCenter(this.canvasBoard);
     }
 
     /**
@@ -90,35 +264,46 @@ public class ConcentrationGUI extends Application
         Button reset = new Button("Reset");
         Button undo = new Button("Undo");
         Button cheat = new Button("Cheat");
-        this.moves = new Label("Moves: " + this.model.getMoveCount());
+        Button hint = new Button("Hint");
+        this.moves = new Label("Moves: 0");
         this.instructions = new Label("Select the first card.");
         HBox buttons = new HBox();
+        this.layout = layout;
+        this.cards = cards;
+        this.buttons = buttons;
         this.cardList = new ArrayList<>();
+        this.cardViews = new ArrayList<>();
         this.images = new ArrayList<>();
 
-        this.images.add(new Image(getClass().getResourceAsStream("resources/cinderace.png")));
-        this.images.add(new Image(getClass().getResourceAsStream("resources/ditto.png")));
-        this.images.add(new Image(getClass().getResourceAsStream("resources/grimm.png")));
-        this.images.add(new Image(getClass().getResourceAsStream("resources/luxray.png")));
-        this.images.add(new Image(getClass().getResourceAsStream("resources/obstagoon.png")));
-        this.images.add(new Image(getClass().getResourceAsStream("resources/sceptile.png")));
-        this.images.add(new Image(getClass().getResourceAsStream("resources/tapu.png")));
-        this.images.add(new Image(getClass().getResourceAsStream("resources/zarude.png")));
+        // a fast start decodes the faces in the background while the first frame is drawn
+        for (String face : FACES) {
+            this.images.add(this.fast ? ImageCache.load(face) : ImageCache.get(face));
+        }
+        if (this.useAtlas && !this.fast) {
+            this.atlas = spriteAtlas();
+        }
 
-        buttons.getChildren().addAll(reset, undo, cheat, moves);
+        buttons.getChildren().addAll(reset, undo, cheat, hint, moves);
         buttons.setAlignment(Pos.BASELINE_CENTER);
-        stage.setScene(new Scene(layout));
+        Scene scene = new Scene(layout);
+        stage.setScene(scene);
         stage.setTitle("Gotta Match Em All!");
-        for (int row = 0; row < 4; row++) {
-            for (int col = 0; col < 4; col++) {
-                ImageView card = new ImageView(new Image(getClass().getResourceAsStream("resources/pokeball.png")));
+        int width = this.width;
+        for (int row = 0; row < this.height && !this.canvas; row++) {
+            for (int col = 0; col < width; col++) {
+                ImageView card = new ImageView();
+                if (this.fast) {
+                    card.setImage(ImageCache.load(BACK));
+                } else {
+                    setBack(card);
+                }
                 Button cardButton = new Button();
                 this.cardList.add(cardButton);
-                int finalRow = row;
-                int finalCol = col;
-                cardButton.setOnAction(e -> this.model.selectCard(finalRow * 4 + finalCol));
+                this.cardViews.add(card);
+                int index = row * width + col;
+                cardButton.setOnAction(e -> this.model.selectCard(index));
                 cardButton.setGraphic(card);
-                cards.add(cardButton, row, col);
+                cards.add(cardButton, col, row);
             }
         }
 
@@ -131,96 +316,129 @@ public class ConcentrationGUI extends Application
         cheat.setOnAction((event) -> {
             this.model.cheat();
         });
+        hint.setOnAction((event) -> {
+            showHint();
+        });
 
 
         layout.setTop(instructions);
-        layout.setCenter(cards);
+        if (this.canvas && !this.fast) {
+            showCanvas();
+        } else if (this.canvas) {
+            layout.setCenter(new Label("Dealing..."));
+        } else {
+            layout.setCenter(new ScrollPane(cards));
+        }
         layout.setBottom(buttons);
+        if (this.fast) {
+            cards.setDisable(true);
+            buttons.setDisable(true);
+        }
 
+        // the first frame is drawn right after the first layout pass following show
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                FirstFrame.reached("gui");
+                if (ConcentrationGUI.this.fast) {
+                    Platform.runLater(ConcentrationGUI.this::connectLater);
+                }
+            }
+        });
         stage.show();
 
     }
 
     /**
-     * opens a new window showing the correct order of cards
-     * @param cheatCards An ArrayList containing each of the cards in the correct order they are placed in
-     * @param stage the stage used in the GUI to display the cards
+     * tells the player which card to select next and, when each card is a button, moves the focus to it
      */
-    public void cheatWindow(ArrayList< Card > cheatCards, Stage stage) {
-        BorderPane layout = new BorderPane();
-        GridPane cards = new GridPane();
-        this.cheatCardList = new ArrayList<>();
-        ArrayList<Image> images = new ArrayList<>();
-
-        images.add(new Image(getClass().getResourceAsStream("resources/cinderace.png")));
-        images.add(new Image(getClass().getResourceAsStream("resources/ditto.png")));
-        images.add(new Image(getClass().getResourceAsStream("resources/grimm.png")));
-        images.add(new Image(getClass().getResourceAsStream("resources/luxray.png")));
-        images.add(new Image(getClass().getResourceAsStream("resources/obstagoon.png")));
-        images.add(new Image(getClass().getResourceAsStream("resources/sceptile.png")));
-        images.add(new Image(getClass().getResourceAsStream("resources/tapu.png")));
-        images.add(new Image(getClass().getResourceAsStream("resources/zarude.png")));
-
-        stage.setScene(new Scene(layout));
-        for (int row = 0; row < 4; row++) {
-            for (int col = 0; col < 4; col++) {
-                stage.setTitle("Cheat Window!");
-                Button cardButton = new Button();
-                this.cheatCardList.add(cardButton);
-                cards.add(cardButton, row, col);
-            }
+    private void showHint() {
+        int n = this.model.getHints().hint();
+        if (n < 0) {
+            return;
         }
-        for (int i = 0; i < cheatCardList.size(); i++){
-            Button cardButton = this.cheatCardList.get(i);
-            int index = cheatCards.get(i).getNumber();
-            cardButton.setGraphic(this.getImageView(index));
+        int width = this.model.getWidth();
+        this.instructions.setText("Hint: try the card in row " + (n / width + 1) + ", column " + (n % width + 1) + ".");
+        if (this.canvasBoard == null) {
+            this.cardList.get(n).requestFocus();
         }
+    }
 
-        layout.setCenter(cards);
-        stage.show();
+    /**
+     * shows the cheat window, building it the first time
+     */
+    private void showCheat() {
+        if (this.cheatPanel == null) {
+            this.cheatPanel = new CheatPanel(this.model.getCheatView(), spriteAtlas());
+        }
+        this.cheatPanel.show();
     }
 
     /**
-     * Update the UI. This method is called by an object in the game model. The contents of the buttons are changed
-     * based on the card faces in the model. Changes in the the text in the labels may also occur based on the changed
-     * model state.
+     * Update the UI. This method is called by an object in the game model. Only the buttons of the cards named in
+     * the event are changed; a reset (or no event) repaints every card. Changes in the the text in the labels may also
+     * occur based on the changed model state.
      *
      * @param concentrationModel the model object that knows the current board state
-     * @param o null ⇒ non-cheating mode; non-null ⇒ cheating mode
+     * @param o the ModelEvent describing the change, or null to repaint everything
      */
     @Override
     public void update( ConcentrationModel concentrationModel, Object o ) {
+        ModelEvent event = o instanceof ModelEvent ? (ModelEvent) o : null;
+        // the model announces a win once, right after the winning move
+        if (event != null && event.getType() == ModelEvent.Type.GAME_OVER) {
+            this.instructions.setText("You win!");
+            System.out.println( "YOU WIN!" );
+            return;
+        }
         this.moves.setText("Moves: " + String.valueOf(this.model.getMoveCount()));
-        for (int i = 0; i < cardList.size(); i++) {
-            //flip a card
-            if (this.model.getCards().get(i).isFaceUp()) {
-                int index = this.model.getCards().get(i).getNumber();
-                cardList.get(i).setGraphic(this.getImageView(index));
+        BoardView board = this.model.getBoardView();
+        if ((event == null || event.getType() == ModelEvent.Type.RESET) && this.canvasBoard != null) {
+            this.canvasBoard.redraw();
+        } else if (event == null || event.getType() == ModelEvent.Type.RESET) {
+            for (int i = 0; i < cardList.size(); i++) {
+                showCard(board, i);
             }
-            if (!this.model.getCards().get(i).isFaceUp()) {
-                cardList.get(i).setGraphic(new ImageView(new Image(getClass().getResourceAsStream("resources/pokeball.png"))));
+        } else {
+            for (int k = 0; k < event.flippedCount(); k++) {
+                showCard(board, event.flipped(k));
             }
         }
-        if (this.model.howManyCardsUp() == 0) {
-            this.instructions.setText("Select the First card.");
-        } else if (this.model.howManyCardsUp() == 1) {
-            this.instructions.setText("Select the Second card.");
-        } else if (this.model.howManyCardsUp() == 2) {
+        int up = this.model.howManyCardsUp();
+        if (this.model.isMismatched()) {
             this.instructions.setText("No Match: Undo or select a card.");
+        } else if (up < ORDINALS.length) {
+            this.instructions.setText("Select the " + ORDINALS[up] + " card.");
+        } else {
+            this.instructions.setText("Select card " + (up + 1) + ".");
         }
 
         //cheat
-        if(o != null) {
-            cheatWindow(this.model.getCheat(), new Stage());
+        if (event != null && event.getType() == ModelEvent.Type.CHEAT) {
+            showCheat();
+        } else if (this.cheatPanel != null) {
+            this.cheatPanel.update(event);
         }
+    }
 
-        // display a win if all cards are face up (not cheating)
-        if ( this.model.getCards().stream().allMatch( face -> face.isFaceUp() ) ) {
-            System.out.println( "YOU WIN!" );
+
+    /**
+     * shows the face or the back of one card, whichever the board shows
+     *
+     * @param board the board as the player sees it
+     * @param i the index of the card
+     */
+    private void showCard(BoardView board, int i) {
+        if (this.canvasBoard != null) {
+            this.canvasBoard.redrawCard(i);
+        } else if (board.isFaceUp(i)) {
+            setFace(cardViews.get(i), board.getNumber(i));
+        } else {
+            setBack(cardViews.get(i));
         }
     }
 
-
     /**
      * main entry point launches the JavaFX GUI.
      *
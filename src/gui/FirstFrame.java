@@ -0,0 +1,44 @@
+package gui;
+
+/**
+ * Marks the moment a front end has shown its first frame, for measuring start-up. Nothing happens unless the system
+ * property {@value #PROPERTY} is set: to {@code report} to print a marker line on standard error and carry on, or to
+ * {@code exit} to print it and stop the process, as a start-up harness or a class-data-sharing training run wants. A
+ * harness times the marker from the launch of the process, which also counts the start of the JVM. The class uses
+ * nothing from JavaFX, so the text front end can mark its first frame too without loading the toolkit.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class FirstFrame {
+
+    /**
+     * the system property that turns the marker on
+     */
+    public static final String PROPERTY = "concentration.firstFrame";
+
+    /**
+     * the start of the marker line, which a harness looks for
+     */
+    public static final String PREFIX = "first-frame ";
+
+    private FirstFrame() {
+    }
+
+    /**
+     * tells that the first frame is on the screen; only the first call does anything
+     *
+     * @param entry the name of the front end, for example gui or ptui
+     */
+    public static synchronized void reached(String entry) {
+        String mode = System.getProperty(PROPERTY);
+        if (mode == null) {
+            return;
+        }
+        System.clearProperty(PROPERTY);
+        System.err.println(PREFIX + entry);
+        System.err.flush();
+        if (mode.equals("exit")) {
+            System.exit(0);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package gui;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+
+/**
+ * A sprite atlas: several decoded images packed side by side into one image. An ImageView shows a single sprite by
+ * pointing its viewport at that sprite's rectangle, so switching sprites never touches pixel data.
+ *
+ * @author Adrian Burgos awb8593
+ */
+final class ImageAtlas {
+
+    /**
+     * the packed image
+     */
+    private final WritableImage image;
+
+    /**
+     * the rectangle of each sprite within the packed image
+     */
+    private final Rectangle2D[] viewports;
+
+    /**
+     * packs the images left to right in a single row
+     *
+     * @param sprites the decoded images to pack
+     */
+    ImageAtlas(Image[] sprites) {
+        int width = 0;
+        int height = 0;
+        for (Image sprite : sprites) {
+            width += (int) sprite.getWidth();
+            height = Math.max(height, (int) sprite.getHeight());
+        }
+        this.image = new WritableImage(Math.max(width, 1), Math.max(height, 1));
+        this.viewports = new Rectangle2D[sprites.length];
+        int x = 0;
+        for (int i = 0; i < sprites.length; i++) {
+            int w = (int) sprites[i].getWidth();
+            int h = (int) sprites[i].getHeight();
+            PixelReader reader = sprites[i].getPixelReader();
+            this.image.getPixelWriter().setPixels(x, 0, w, h, reader, 0, 0);
+            this.viewports[i] = new Rectangle2D(x, 0, w, h);
+            x += w;
+        }
+    }
+
+    /**
+     * @return the number of sprites in the atlas
+     */
+    int size() {
+        return this.viewports.length;
+    }
+
+    /**
+     * @param i the index of a sprite
+     * @return the rectangle the sprite occupies in the packed image
+     */
+    Rectangle2D viewport(int i) {
+        return this.viewports[i];
+    }
+
+    /**
+     * @return the packed image
+     */
+    Image getImage() {
+        return this.image;
+    }
+
+    /**
+     * points an existing ImageView at a sprite
+     *
+     * @param view the view to reuse
+     * @param i the index of the sprite to show
+     */
+    void show(ImageView view, int i) {
+        view.setImage(this.image);
+        view.setViewport(this.viewports[i]);
+    }
+}
@@ -0,0 +1,110 @@
+package gui;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.image.Image;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Decodes each image resource exactly once and hands out the decoded image to every view that asks for it.
+ * Images can be decoded up front or in the background. Atlases built from the cached images are cached too, and can
+ * be packed as soon as background decoding finishes.
+ *
+ * @author Adrian Burgos awb8593
+ */
+final class ImageCache {
+
+    /**
+     * decoded images by resource name
+     */
+    private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+
+    /**
+     * packed atlases by the comma separated list of their resource names
+     */
+    private static final Map<String, ImageAtlas> ATLASES = new ConcurrentHashMap<>();
+
+    private ImageCache() {
+    }
+
+    /**
+     * @param name the file name of an image in the resources directory
+     * @return the decoded image, decoding it only on the first request
+     */
+    static Image get(String name) {
+        return IMAGES.computeIfAbsent(name, n -> new Image(ImageCache.class.getResourceAsStream("resources/" + n)));
+    }
+
+    /**
+     * starts decoding an image on JavaFX's background loader and returns at once; an image view showing the image
+     * fills in when decoding finishes
+     *
+     * @param name the file name of an image in the resources directory
+     * @return the image, which may still be loading, or the decoded image if it was already in the cache
+     */
+    static Image load(String name) {
+        return IMAGES.computeIfAbsent(name,
+                n -> new Image(ImageCache.class.getResource("resources/" + n).toExternalForm(), true));
+    }
+
+    /**
+     * @param names the file names of images in the resources directory
+     * @return an atlas holding the images in the order given, building it only on the first request; an image still
+     * loading in the background is decoded at once and replaces the loading one in the cache
+     */
+    static ImageAtlas atlas(String... names) {
+        return ATLASES.computeIfAbsent(String.join(",", names), key -> {
+            Image[] images = new Image[names.length];
+            for (int i = 0; i < names.length; i++) {
+                images[i] = get(names[i]);
+                if (images[i].getProgress() < 1) {
+                    images[i] = new Image(ImageCache.class.getResourceAsStream("resources/" + names[i]));
+                    IMAGES.put(names[i], images[i]);
+                }
+            }
+            return new ImageAtlas(images);
+        });
+    }
+
+    /**
+     * builds an atlas without waiting on a decode: the images are loaded in the background, and the atlas is packed
+     * once every one of them reports that it has finished. Call it on the JavaFX thread, which is where the progress
+     * of a background load is reported.
+     *
+     * @param then given the atlas on the JavaFX thread, at once if every image is already decoded
+     * @param names the file names of images in the resources directory
+     */
+    static void atlasWhenLoaded(Consumer<ImageAtlas> then, String... names) {
+        List<Image> loading = new ArrayList<>();
+        for (String name : names) {
+            Image image = load(name);
+            if (image.getProgress() < 1) {
+                loading.add(image);
+            }
+        }
+        if (loading.isEmpty()) {
+            then.accept(atlas(names));
+            return;
+        }
+        int[] left = {loading.size()};
+        for (Image image : loading) {
+            image.progressProperty().addListener(new ChangeListener<Number>() {
+                @Override
+                public void changed(ObservableValue<? extends Number> value, Number before, Number after) {
+                    if (after.doubleValue() < 1) {
+                        return;
+                    }
+                    value.removeListener(this);
+                    if (--left[0] == 0) {
+                        then.accept(atlas(names));
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * An observer that hands its notifications to another observer on an
+ * executor, such as the JavaFX application thread or a thread of its
+ * own.  The subject only pays for queueing the notification, so a slow
+ * observer cannot hold it up.
+ * <p>
+ * Notifications are delivered in the order they were sent and never to
+ * two threads at once.  Whatever has queued up by the time the executor
+ * gets to this observer is delivered in a single task, so a burst of
+ * changes costs one hop onto the executor rather than one per change.
+ * <p>
+ * An observer that redraws from the subject's current state has no use
+ * for the states in between.  It can be wrapped so that notifications are
+ * conflated: a run of queued notifications that only change state is
+ * delivered once, with null data, which the target must take to mean
+ * that anything may have changed.  A notification that is not a state
+ * change, such as one announcing a win, is always delivered on its own
+ * and in order.  A lone state change keeps its data.
+ *
+ * @param <Subject>    the type of object being observed
+ * @param <ClientData> the data sent with each notification
+ * @author Adrian Burgos awb8593
+ */
+public final class AsyncObserver< Subject, ClientData >
+        implements Observer< Subject, ClientData > {
+    /**
+     * The observer that does the work.
+     */
+    private final Observer< Subject, ClientData > target;
+
+    /**
+     * Where the work is done.
+     */
+    private final Executor executor;
+
+    /**
+     * Notifications not yet delivered, oldest first.
+     */
+    private final Queue< Object[] > mailbox;
+
+    /**
+     * true while a delivery task is queued or running.
+     */
+    private final AtomicBoolean scheduled;
+
+    /**
+     * Tells which notifications only change state and may be conflated,
+     * or null to deliver every notification.
+     */
+    private final Predicate< ClientData > stateChange;
+
+    /**
+     * Wrap an observer so that it gets every notification.
+     *
+     * @param target   the observer that does the work
+     * @param executor where the work is done
+     */
+    public AsyncObserver( Observer< Subject, ClientData > target,
+                          Executor executor ) {
+        this( target, executor, null );
+    }
+
+    /**
+     * Wrap an observer so that runs of state changes are conflated.
+     *
+     * @param target      the observer that does the work
+     * @param executor    where the work is done
+     * @param stateChange tells which notifications only change state, or
+     *                    null to deliver every notification
+     */
+    public AsyncObserver( Observer< Subject, ClientData > target,
+                          Executor executor,
+                          Predicate< ClientData > stateChange ) {
+        this.target = target;
+        this.executor = executor;
+        this.mailbox = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+        this.stateChange = stateChange;
+    }
+
+    /**
+     * Queue a notification and make sure a delivery task will run.
+     *
+     * @param subject the object that changed
+     * @param data    what changed
+     */
+    @Override
+    public void update( Subject subject, ClientData data ) {
+        this.mailbox.add( new Object[]{ subject, data } );
+        if ( this.scheduled.compareAndSet( false, true ) ) {
+            this.executor.execute( this::drain );
+        }
+    }
+
+    /**
+     * Deliver the queued notifications, conflating runs of state changes
+     * if asked to.  If the target throws, the exception is left to the
+     * executor to report, and the notifications still queued are
+     * delivered by another task.
+     */
+    @SuppressWarnings( "unchecked" )
+    private void drain() {
+        try {
+            Object[] note;
+            while ( ( note = this.mailbox.poll() ) != null ) {
+                ClientData data = ( ClientData ) note[ 1 ];
+                if ( isStateChange( data ) ) {
+                    // only this task polls, so the head stays put between
+                    // the peek and the poll
+                    Object[] next;
+                    while ( ( next = this.mailbox.peek() ) != null &&
+                            isStateChange( ( ClientData ) next[ 1 ] ) ) {
+                        this.mailbox.poll();
+                        note = next;
+                        data = null;
+                    }
+                }
+                this.target.update( ( Subject ) note[ 0 ], data );
+            }
+        }
+        finally {
+            this.scheduled.set( false );
+            // a notification may have arrived after the last poll but
+            // before the flag was cleared, or delivery may have stopped
+            // at an exception; if so, schedule another task.
+            if ( !this.mailbox.isEmpty() &&
+                 this.scheduled.compareAndSet( false, true ) ) {
+                this.executor.execute( this::drain );
+            }
+        }
+    }
+
+    /**
+     * @param data the data of a notification
+     * @return true if it only changes state and may be conflated
+     */
+    private boolean isStateChange( ClientData data ) {
+        return this.stateChange != null && this.stateChange.test( data );
+    }
+}
@@ -0,0 +1,99 @@
+package model;
+
+/**
+ * An immutable copy of a board as the player saw it at one moment, along
+ * with the move count and selection state at that moment.  It is safe to
+ * share between threads.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class BoardSnapshot implements BoardView {
+    /**
+     * The number of columns on the board.
+     */
+    private final int width;
+
+    /**
+     * The number of rows on the board.
+     */
+    private final int height;
+
+    /**
+     * The number on the card at each position.
+     */
+    private final int[] numbers;
+
+    /**
+     * One bit per position; set when the card is face-up.
+     */
+    private final long[] faceUp;
+
+    /**
+     * The number of moves made.
+     */
+    private final int moveCount;
+
+    /**
+     * The number of cards selected.
+     */
+    private final int cardsUp;
+
+    /**
+     * Create a snapshot.  The arrays are owned by the snapshot from now on.
+     *
+     * @param width     the number of columns on the board
+     * @param height    the number of rows on the board
+     * @param numbers   the number on the card at each position
+     * @param faceUp    one bit per position, set when face-up
+     * @param moveCount the number of moves made
+     * @param cardsUp   the number of cards selected
+     */
+    BoardSnapshot( int width, int height, int[] numbers, long[] faceUp,
+                   int moveCount, int cardsUp ) {
+        this.width = width;
+        this.height = height;
+        this.numbers = numbers;
+        this.faceUp = faceUp;
+        this.moveCount = moveCount;
+        this.cardsUp = cardsUp;
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    @Override
+    public int size() {
+        return this.numbers.length;
+    }
+
+    @Override
+    public boolean isFaceUp( int n ) {
+        return ( this.faceUp[ n >>> 6 ] & ( 1L << n ) ) != 0;
+    }
+
+    @Override
+    public int getNumber( int n ) {
+        return isFaceUp( n ) ? this.numbers[ n ] : -1;
+    }
+
+    /**
+     * @return the number of moves made when the snapshot was taken
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * @return the number of cards selected when the snapshot was taken
+     */
+    public int howManyCardsUp() {
+        return this.cardsUp;
+    }
+}
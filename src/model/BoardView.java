@@ -0,0 +1,39 @@
+package model;
+
+/**
+ * A read-only, live view of the cards on a board.  Reading through a view
+ * copies nothing and creates no objects, so a renderer can consult it for
+ * every cell of every frame.  The view always reflects the current state
+ * of the model that handed it out.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public interface BoardView {
+    /**
+     * @return the number of columns on the board
+     */
+    int getWidth();
+
+    /**
+     * @return the number of rows on the board
+     */
+    int getHeight();
+
+    /**
+     * @return the number of cards on the board
+     */
+    int size();
+
+    /**
+     * @param n an integer referring to the nth card
+     * @return true if the card is showing its face in this view
+     */
+    boolean isFaceUp( int n );
+
+    /**
+     * @param n an integer referring to the nth card
+     * @return the number on the card if it is showing its face in this
+     * view, -1 otherwise (the same rule as {@link Card#getNumber()})
+     */
+    int getNumber( int n );
+}
@@ -37,6 +37,20 @@ public class Card {
 
     }
 
+    /**
+     * Create a card with an explicit face state.  The model uses this to
+     * materialize a card from its packed board storage on demand.
+     *
+     * @param number   the secret, hidden id of the card (for text ui)
+     * @param isFaceUp is true if the card is showing its face
+     * @param canFlip  is true if the card can be flipped face up/down.
+     */
+    public Card(int number, boolean isFaceUp, boolean canFlip) {
+        this.number = number;
+        this.isFaceUp = isFaceUp;
+        this.canFlip = canFlip;
+    }
+
     /**
      * Create a copy of the card.
      *
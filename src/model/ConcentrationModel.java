@@ -1,11 +1,12 @@
 package model;
 
-import gui.ConcentrationGUI;
-
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Definition for the model of a concentration card game.
@@ -21,31 +22,87 @@ public class ConcentrationModel {
     public static final int BOARD_SIZE = 4;
 
     /**
-     * The total number of cards assuming a square board.
+     * The total number of cards on the default square board.
      */
     public static final int NUM_CARDS = BOARD_SIZE * BOARD_SIZE;
 
     /**
-     * The number of pairs.
+     * The number of pairs on the default board.
      */
     public static final int NUM_PAIRS = NUM_CARDS / 2;
 
+    /**
+     * The number of cards in a matching group in the classic game.
+     */
+    public static final int DEFAULT_GROUP_SIZE = 2;
+
+    /**
+     * The version written at the start of every snapshot.  Version 1 had
+     * no group size and is read as a game of pairs.
+     */
+    private static final byte SNAPSHOT_VERSION = 2;
+
+    /**
+     * The root of the per-thread seed generators.
+     */
+    private static final SplittableRandom SEEDS = new SplittableRandom();
+
+    /**
+     * The source of seeds for shuffles that are not given one.  Each
+     * thread has its own generator, split from SEEDS, so threads never
+     * contend for it.
+     */
+    private static final ThreadLocal< SplittableRandom > THREAD_SEEDS =
+            ThreadLocal.withInitial( ConcentrationModel::splitSeeds );
+
     /**
      * Those objects that are watching this object's every move
      */
     private List< Observer< ConcentrationModel, Object > > observers;
     /**
-     * The undo stack for the game tracks pairing selections in progress.
-     * The undo stack support the undo operation to undo 1 or 2 cards
-     * if there are any card flips to undo.
+     * The board: card numbers plus packed face-up and can-flip bits.
+     * Its pending selections are the undo stack for the game; they track
+     * matching selections in progress and support the undo operation to
+     * undo the cards of a group that are up if there are any to undo.
+     * Card objects are only made when a caller asks for them.
+     */
+    private final PackedBoard board;
+
+    /**
+     * What the player has seen of the board; it answers hints.
+     */
+    private final KnowledgeTracker knowledge;
+
+    /**
+     * The read-only view of the board as the player sees it.
+     */
+    private final BoardView boardView;
+
+    /**
+     * The read-only view of the board with every card showing.
+     */
+    private final BoardView cheatView;
+
+    /**
+     * The number of columns on the board.
      */
-    private ArrayList< Card > undoStack;
+    private final int width;
 
     /**
-     * There are NUM_PAIRS cards each of which contains an image
-     * loaded from a file.
+     * The number of rows on the board.
      */
-    private ArrayList< Card > cards;
+    private final int height;
+
+    /**
+     * Scratch space for the cards turned over by the operation in
+     * progress, so that one operation sends one event.
+     */
+    private final int[] flipped;
+
+    /**
+     * Every move of the game so far, for undoMove and redoMove.
+     */
+    private final History history;
 
     /**
      * Store the number of moves made in the game.
@@ -54,28 +111,138 @@ public class ConcentrationModel {
     private int moveCount;
 
     /**
-     * Construct a ConcentrationModel; there is only one configuration.
+     * The number of groups matched so far.
+     */
+    private int matchedPairs;
+
+    /**
+     * true when the last move matched the last group and the game-over
+     * event has not been made yet.
+     */
+    private boolean gameOver;
+
+    /**
+     * The seed that dealt the current board.
+     */
+    private long seed;
+
+    /**
+     * Where unseeded resets get their decks, or null to shuffle.
+     */
+    private volatile DeckPool deckPool;
+
+    /**
+     * Where measurements go, or null to take none.
+     */
+    private volatile ModelMetrics metrics;
+
+    /**
+     * Construct a ConcentrationModel with the default square board.
      */
     public ConcentrationModel() {
-        this.observers = new LinkedList<>();
-        this.cards = new ArrayList<>();
+        this( BOARD_SIZE, BOARD_SIZE );
+    }
 
-        for ( int n = 0; n < NUM_PAIRS; ++n ) {
-            Card card1 = new Card( n, true );
-            Card card2 = new Card( n, true );
-            this.cards.add( card1 );
-            this.cards.add( card2 );
+    /**
+     * Construct a ConcentrationModel with a board of any shape.
+     * Cards are numbered row by row, so card n sits in row n / width
+     * and column n % width.
+     *
+     * @param width  The number of columns on the board.
+     * @param height The number of rows on the board.
+     * @throws IllegalArgumentException if either side is not positive or
+     *                                  the board holds an odd number of
+     *                                  cards
+     */
+    public ConcentrationModel( int width, int height ) {
+        this( width, height, nextSeed() );
+    }
+
+    /**
+     * Construct a ConcentrationModel whose first deal is determined by a
+     * seed.  Two models built with the same shape and seed start with the
+     * same board.
+     *
+     * @param width  The number of columns on the board.
+     * @param height The number of rows on the board.
+     * @param seed   The seed for the first shuffle.
+     * @throws IllegalArgumentException if either side is not positive or
+     *                                  the board holds an odd number of
+     *                                  cards
+     */
+    public ConcentrationModel( int width, int height, long seed ) {
+        this( width, height, DEFAULT_GROUP_SIZE, seed );
+    }
+
+    /**
+     * Construct a ConcentrationModel in which cards match in groups of
+     * any size: triples, quads and so on.  A turn turns up cards until a
+     * whole group is showing, which is matched, or until a card does not
+     * match the first of the turn, after which the next selection turns
+     * the cards of the turn back over.  Groups of 2 are the classic game.
+     *
+     * @param width     The number of columns on the board.
+     * @param height    The number of rows on the board.
+     * @param groupSize The number of cards in a matching group.
+     * @param seed      The seed for the first shuffle.
+     * @throws IllegalArgumentException if either side is not positive, the
+     *                                  group size is less than 2 or the
+     *                                  board does not hold a whole number
+     *                                  of groups
+     */
+    public ConcentrationModel( int width, int height, int groupSize,
+                               long seed ) {
+        this( width, height, groupSize, seed, true );
+    }
+
+    /**
+     * Construct a ConcentrationModel, dealing the board only if asked to.
+     * A board that is not dealt is left in pair order, ready to be
+     * overwritten by a snapshot.
+     *
+     * @param width     The number of columns on the board.
+     * @param height    The number of rows on the board.
+     * @param groupSize The number of cards in a matching group.
+     * @param seed      The seed for the first shuffle.
+     * @param deal      true to shuffle the board.
+     */
+    private ConcentrationModel( int width, int height, int groupSize,
+                                long seed, boolean deal ) {
+        if ( width <= 0 || height <= 0 ) {
+            throw new IllegalArgumentException(
+                    "Board sides must be positive: " + width + "x" + height );
+        }
+        if ( groupSize < 2 ) {
+            throw new IllegalArgumentException(
+                    "Groups must have at least 2 cards: " + groupSize );
+        }
+        long numCards = ( long ) width * height;
+        if ( numCards % groupSize != 0 || numCards > Integer.MAX_VALUE ) {
+            throw new IllegalArgumentException(
+                    "Board must hold a whole number of groups of " +
+                    groupSize + ": " + width + "x" + height );
+        }
+        this.observers = new CopyOnWriteArrayList<>();
+        this.width = width;
+        this.height = height;
+        this.board = new PackedBoard( ( int ) numCards, groupSize );
+        this.history = new History( groupSize );
+        this.flipped = new int[ groupSize + 1 ];
+        this.knowledge = new KnowledgeTracker( this.board );
+        this.boardView = new View( false );
+        this.cheatView = new View( true );
+        if ( deal ) {
+            applyReset( seed );
         }
-        this.reset();
     }
 
     /**
      * Push a card onto the undo stack.
      *
-     * @param card The card to push.
+     * @param n The board index of the card to push.
      */
-    private void push( Card card ) {
-        undoStack.add( card );
+    private void push( int n ) {
+        board.push( n );
     }
 
     /**
@@ -90,13 +257,11 @@ public class ConcentrationModel {
      *               reset.
      */
     private void pop( boolean toggle ) {
-        int s = undoStack.size();
-        if ( s > 0 ) {
-            Card card = undoStack.get( s - 1 );
-            undoStack.remove( s - 1 );
+        if ( board.pendingSize() > 0 ) {
+            int n = board.pop();
             if ( toggle ) {
                 // re-enable flipping this card.
-                card.toggleFace( toggle );
+                board.toggleFace( n, toggle );
             }
         }
     }
@@ -112,35 +277,166 @@ public class ConcentrationModel {
      * Undo selecting a card.
      */
     public void undo() {
+        announce( applyUndo() );
+    }
+
+    /**
+     * Undo selecting a card without telling the observers yet.
+     *
+     * @return the event to announce, or null if nobody is listening
+     */
+    ModelEvent applyUndo() {
+        long start = startTiming();
+        history.begin( board, this.moveCount, -1 );
+        int n = undoCard();
+        history.commit( board, this.moveCount, ModelEvent.NONE );
+        if ( n >= 0 ) {
+            this.flipped[ 0 ] = n;
+        }
+        return timed( ModelEvent.Type.UNDO, start,
+                      event( ModelEvent.Type.UNDO, n, n >= 0 ? 1 : 0,
+                             ModelEvent.NONE ) );
+    }
+
+    /**
+     * Undo selecting a card without telling the observers.
+     *
+     * @return the index of the card turned back over, or -1 if there was
+     * no selection to undo
+     */
+    private int undoCard() {
+        int n = board.pendingSize() > 0
+                ? board.pendingAt( board.pendingSize() - 1 ) : -1;
         pop( true );
-        announce( null );
+        return n;
     }
 
     /**
      * Turn over a card.
      *
      * @param n An integer referring to the nth card.
+     * @return true if the card was turned face up
      */
-    private void add( int n ) {
-        Card card = cards.get( n );
-        if ( !card.isFaceUp() ) {
-            card.toggleFace();
-            push( card );
+    private boolean add( int n ) {
+        if ( !board.isFaceUp( n ) ) {
+            board.toggleFace( n );
+            knowledge.see( n );
+            push( n );
             ++this.moveCount;
+            return true;
         }
+        return false;
     }
 
     /**
-     * Check to see if the two cards on the top of the undo stack have
-     * the same value, and pop them off the undo stack if they match.
+     * Check whether the card just turned up completes a group or ends the
+     * turn with a mismatch, and pop a completed group off the undo stack.
+     * Every earlier card of the turn matched the first, so only the newest
+     * card is compared, whatever the group size.
+     *
+     * @return the indices of the matched cards, empty if there is no match
      */
-    private void checkMatch() {
-        if ( undoStack.size() == 2 &&
-             undoStack.get( 0 ).getNumber() ==
-             undoStack.get( 1 ).getNumber() ) {
-            pop();
+    private int[] checkMatch() {
+        int size = board.pendingSize();
+        if ( size < 2 ) {
+            return ModelEvent.NONE;
+        }
+        boolean mismatch = board.mismatched();
+        if ( !mismatch && size < board.groupSize() ) {
+            return ModelEvent.NONE;
+        }
+        ModelMetrics metrics = this.metrics;
+        if ( metrics != null ) {
+            metrics.recordMatch( !mismatch );
+        }
+        if ( mismatch ) {
+            return ModelEvent.NONE;
+        }
+        int[] matched = new int[ size ];
+        for ( int k = size - 1; k >= 0; --k ) {
+            matched[ k ] = board.pendingAt( k );
             pop();
         }
+        knowledge.matched( matched[ 0 ], true );
+        this.gameOver = ++this.matchedPairs == getNumPairs();
+        return matched;
+    }
+
+    /**
+     * Take back the last move of the game, whatever it was: a selection
+     * (even one that completed a group) or an undo.  Moves can be taken
+     * back all the way to the deal.  The history is kept as small delta
+     * records, so it costs a few ints per move however large the board.
+     */
+    public void undoMove() {
+        announce( applyUndoMove() );
+    }
+
+    /**
+     * Take back the last move without telling the observers yet.
+     *
+     * @return the event to announce, or null if there is none
+     */
+    ModelEvent applyUndoMove() {
+        long start = startTiming();
+        int count = history.undo( board, this.flipped );
+        if ( count < 0 ) {
+            return null;
+        }
+        this.moveCount = history.restoredMoveCount();
+        if ( history.restoredMatch() ) {
+            --this.matchedPairs;
+            knowledge.matched( history.restoredMatchCard(), false );
+        }
+        return timed( ModelEvent.Type.UNDO_MOVE, start,
+                      event( ModelEvent.Type.UNDO_MOVE, -1, count,
+                             ModelEvent.NONE ) );
+    }
+
+    /**
+     * Make the last move taken back by {@link #undoMove()} again.  Any
+     * other move drops the moves that were taken back.
+     */
+    public void redoMove() {
+        announce( applyRedoMove() );
+        announce( applyGameOver() );
+    }
+
+    /**
+     * Make a move again without telling the observers yet.
+     *
+     * @return the event to announce, or null if there is none
+     */
+    ModelEvent applyRedoMove() {
+        long start = startTiming();
+        int count = history.redo( board, this.flipped );
+        if ( count < 0 ) {
+            return null;
+        }
+        this.moveCount = history.restoredMoveCount();
+        if ( history.restoredMatch() ) {
+            this.gameOver = ++this.matchedPairs == getNumPairs();
+            knowledge.matched( history.restoredMatchCard(), true );
+        }
+        return timed( ModelEvent.Type.REDO_MOVE, start,
+                      event( ModelEvent.Type.REDO_MOVE, -1, count,
+                             history.redoneMatch() ) );
+    }
+
+    /**
+     * @return true if there is a move that {@link #undoMove()} can take
+     * back
+     */
+    public boolean canUndoMove() {
+        return history.canUndo();
+    }
+
+    /**
+     * @return true if there is a move that {@link #redoMove()} can make
+     * again
+     */
+    public boolean canRedoMove() {
+        return history.canRedo();
     }
 
     /**
@@ -150,26 +446,119 @@ public class ConcentrationModel {
      * @param n An integer referring to the nth card.
      */
     public void selectCard( int n ) {
+        announce( applySelect( n ) );
+        announce( applyGameOver() );
+    }
 
-        if ( 0 <= n && n < NUM_CARDS ) {
-            switch ( undoStack.size() ) {
-                case 2:
-                    undo();
-                    undo();
-                case 0:
-                    add( n );
-                    break;
-                case 1:
-                    add( n );
-                    checkMatch();
-                    break;
-                default:
-                    throw
-                            new RuntimeException(
-                                    "Internal Error: undoStack too big." );
+    /**
+     * Make the game-over event if the last move won the game.  It is made
+     * only once per win, and always follows the event of the winning
+     * move.
+     *
+     * @return the event to announce, or null if the game was not just won
+     * or nobody is listening
+     */
+    ModelEvent applyGameOver() {
+        if ( !this.gameOver ) {
+            return null;
+        }
+        this.gameOver = false;
+        return event( ModelEvent.Type.GAME_OVER, -1, 0, ModelEvent.NONE );
+    }
+
+    /**
+     * Get a live view of what the player has seen, for hints.  The model
+     * keeps it up to date as cards are turned, so every query takes
+     * constant time and nothing is scanned or copied; the same object is
+     * returned on every call.  Like the board views, it may change while
+     * it is being read if other threads are playing.
+     *
+     * @return The player's knowledge of the board.
+     */
+    public Hints getHints() {
+        return this.knowledge;
+    }
+
+    /**
+     * Take the cards face up on a restored board as seen, and those not
+     * selected as matched.  The history of the game, and so what else
+     * the player saw, is not part of a snapshot.
+     */
+    private void rememberFaceUp() {
+        for ( int i = 0; i < board.size(); ++i ) {
+            if ( board.isFaceUp( i ) ) {
+                knowledge.see( i );
             }
-            announce( null );
         }
+        for ( int i = 0; i < board.size(); ++i ) {
+            if ( board.isFaceUp( i ) && !isPending( i ) ) {
+                knowledge.matched( i, true );
+            }
+        }
+    }
+
+    /**
+     * @param n An integer referring to the nth card.
+     * @return true if the card is one of the selections in progress.
+     */
+    private boolean isPending( int n ) {
+        for ( int k = 0; k < board.pendingSize(); ++k ) {
+            if ( board.pendingAt( k ) == n ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tell whether every group has been matched.  The model counts matches
+     * as they happen, so this takes constant time.
+     *
+     * @return true if the game is won
+     */
+    public boolean isWon() {
+        return this.matchedPairs == getNumPairs();
+    }
+
+    /**
+     * @return The number of groups matched so far, pairs in the classic
+     * game.
+     */
+    public int getMatchedPairs() {
+        return this.matchedPairs;
+    }
+
+    /**
+     * Select a card without telling the observers yet.
+     *
+     * @param n An integer referring to the nth card.
+     * @return the event to announce, or null if there is none
+     */
+    ModelEvent applySelect( int n ) {
+
+        if ( 0 <= n && n < board.size() ) {
+            long start = startTiming();
+            // the cards turned back over and the card turned up are all
+            // reported in a single event
+            int count = 0;
+            int[] matched = ModelEvent.NONE;
+            history.begin( board, this.moveCount, n );
+            if ( board.mismatched() ) {
+                // the failed turn is turned back over first
+                while ( board.pendingSize() > 0 ) {
+                    this.flipped[ count++ ] = undoCard();
+                }
+            }
+            if ( add( n ) ) {
+                this.flipped[ count++ ] = n;
+                matched = checkMatch();
+            }
+            history.commit( board, this.moveCount, matched );
+            return timed( ModelEvent.Type.SELECT, start,
+                          event( ModelEvent.Type.SELECT, n, count,
+                                 matched ) );
+        }
+        return null;
     }
 
     /**
@@ -178,17 +567,65 @@ public class ConcentrationModel {
      * @return An ArrayList containing the cards on the board.
      */
     public ArrayList< Card > getCards() {
+        int size = board.size();
+        ArrayList< Card > faces = new ArrayList<>( size );
 
-        ArrayList< Card > faces = new ArrayList<>( this.cards );
+        for ( int i = 0; i < size; ++i ) {
+            faces.add( board.toCard( i ) );
+        }
         return faces;
     }
 
+    /**
+     * Get a single card.
+     *
+     * @param n An integer referring to the nth card.
+     * @return A new Card holding the state of the nth card.
+     */
+    public Card getCard( int n ) {
+        return board.toCard( n );
+    }
+
+    /**
+     * Get a live, read-only view of the board.  Unlike
+     * {@link #getCards()} this copies nothing; the same view is returned
+     * on every call.
+     *
+     * @return A view of the cards as the player sees them.
+     */
+    public BoardView getBoardView() {
+        return this.boardView;
+    }
+
+    /**
+     * Get a live, read-only view of the board with every card showing.
+     * Unlike {@link #getCheat()} this copies nothing; the same view is
+     * returned on every call.
+     *
+     * @return A view of the cards, all facing up.
+     */
+    public BoardView getCheatView() {
+        return this.cheatView;
+    }
+
     /**
      * The controller tells the model that the view should get the "cheat"
      * with all cards face up.
      */
     public void cheat() {
-        announce( "cheat" );
+        announce( applyCheat() );
+    }
+
+    /**
+     * Make the event for a cheat request.
+     *
+     * @return the event to announce, or null if nobody is listening
+     */
+    ModelEvent applyCheat() {
+        long start = startTiming();
+        return timed( ModelEvent.Type.CHEAT, start,
+                      event( ModelEvent.Type.CHEAT, -1, 0,
+                             ModelEvent.NONE ) );
     }
 
     /**
@@ -197,16 +634,74 @@ public class ConcentrationModel {
      * @return An ArrayList containing the cards on the board, all facing up.
      */
     public ArrayList< Card > getCheat() {
-        ArrayList< Card > faces = new ArrayList<>();
+        int size = board.size();
+        ArrayList< Card > faces = new ArrayList<>( size );
 
-        for ( Card card : cards ) {
-            Card copy = new Card( card );
-            copy.setFaceUp();
-            faces.add( copy );
+        for ( int i = 0; i < size; ++i ) {
+            faces.add( new Card( board.number( i ), true,
+                                 board.canFlip( i ) ) );
         }
         return faces;
     }
 
+    /**
+     * Get the number of columns on the board.
+     *
+     * @return An integer that is the width of the board.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Get the number of rows on the board.
+     *
+     * @return An integer that is the height of the board.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Get the number of cards on the board.
+     *
+     * @return An integer that is width times height.
+     */
+    public int getNumCards() {
+        return board.size();
+    }
+
+    /**
+     * Get the number of matching groups on the board: pairs in the classic
+     * game.
+     *
+     * @return An integer that is the number of cards divided by the group
+     * size.
+     */
+    public int getNumPairs() {
+        return board.size() / board.groupSize();
+    }
+
+    /**
+     * Get the number of cards in a matching group.
+     *
+     * @return 2 for pairs, 3 for triples and so on.
+     */
+    public int getGroupSize() {
+        return board.groupSize();
+    }
+
+    /**
+     * Tell whether the turn in progress has failed: the card just turned
+     * up does not match the others, so the next selection turns them
+     * back over.  For pairs this is two cards being up.
+     *
+     * @return true if the cards face up in the turn do not match
+     */
+    public boolean isMismatched() {
+        return board.mismatched();
+    }
+
     /**
      * Get the number of moves, i.e., the count of card selections.
      *
@@ -216,24 +711,201 @@ public class ConcentrationModel {
         return this.moveCount;
     }
 
+    /**
+     * Get the seed that dealt the current board.  Resetting with this
+     * seed deals the same board again.
+     *
+     * @return The seed of the current deal.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
     /**
      * Reset the board.  All the cards are turned face-down and are
      * shuffled.  The undo stack and the number of moves are cleared.
      */
     public void reset() {
+        announce( applyReset() );
+    }
 
-        for ( Card card : cards ) {
-            if ( card.isFaceUp() ) {
-                card.toggleFace( true );
-            }
+    /**
+     * Reset the board with a new shuffle without telling the observers
+     * yet.  A deck from the deck pool is used if one is ready; otherwise
+     * the board is shuffled with a fresh seed.
+     *
+     * @return the event to announce, or null if nobody is listening
+     */
+    ModelEvent applyReset() {
+        DeckPool pool = this.deckPool;
+        DeckPool.Deck deck = pool == null ? null : pool.poll();
+        if ( deck == null ) {
+            return applyReset( nextSeed() );
         }
-        Collections.shuffle( cards );
+        long start = startTiming();
+        board.faceDownAll();
+        deck.numbers = board.replaceNumbers( deck.numbers );
+        pool.recycle( deck );
+        return timed( ModelEvent.Type.RESET, start, dealt( deck.seed ) );
+    }
+
+    /**
+     * Take shuffled decks from a pool on unseeded resets, so that the
+     * cost of shuffling is paid in the background rather than by
+     * {@link #reset()}.  Seeded resets always shuffle.
+     *
+     * @param pool The pool, or null to stop using one.
+     * @throws IllegalArgumentException if the pool's decks do not fit
+     *                                  this board
+     */
+    public void setDeckPool( DeckPool pool ) {
+        if ( pool != null && ( pool.getNumCards() != getNumCards() ||
+                               pool.getGroupSize() != getGroupSize() ) ) {
+            throw new IllegalArgumentException(
+                    "The pool deals " + pool.getNumCards() +
+                    " cards in groups of " + pool.getGroupSize() + ", not " +
+                    getNumCards() + " in groups of " + getGroupSize() );
+        }
+        this.deckPool = pool;
+    }
+
+    /**
+     * Draw a seed for a shuffle that was not given one.
+     *
+     * @return A seed from the calling thread's generator.
+     */
+    public static long nextSeed() {
+        return THREAD_SEEDS.get().nextLong();
+    }
+
+    /**
+     * Split a generator off the root for a new thread.
+     *
+     * @return An independent generator.
+     */
+    private static synchronized SplittableRandom splitSeeds() {
+        return SEEDS.split();
+    }
+
+    /**
+     * Reset the board with a given shuffle.  The same seed always deals
+     * the same board.
+     *
+     * @param seed The seed for the shuffle.
+     */
+    public void reset( long seed ) {
+        announce( applyReset( seed ) );
+    }
+
+    /**
+     * Reset the board without telling the observers yet.
+     *
+     * @param seed The seed for the shuffle.
+     * @return the event to announce, or null if nobody is listening
+     */
+    ModelEvent applyReset( long seed ) {
+
+        long start = startTiming();
+        board.faceDownAll();
+        board.shuffle( new SplittableRandom( seed ) );
+        return timed( ModelEvent.Type.RESET, start, dealt( seed ) );
+    }
+
+    /**
+     * Finish a reset once the new deal is on the board.
+     *
+     * @param seed The seed of the deal.
+     * @return the event to announce, or null if nobody is listening
+     */
+    private ModelEvent dealt( long seed ) {
+        this.seed = seed;
+        history.clear();
+        knowledge.forget();
 
-        this.undoStack = new ArrayList<>();
+        board.clearPending();
 
         this.moveCount = 0;
+        this.matchedPairs = 0;
+        this.gameOver = false;
 
-        announce( null );
+        return event( ModelEvent.Type.RESET, -1, 0, ModelEvent.NONE );
+    }
+
+    /**
+     * Take an immutable copy of the board.  Unlike the live views, a
+     * snapshot never changes, so it can be read at leisure (for example
+     * on another thread) while the game goes on.
+     *
+     * @return A snapshot of the board as the player sees it.
+     */
+    public BoardSnapshot snapshot() {
+        return new BoardSnapshot( this.width, this.height,
+                                  board.copyNumbers(), board.copyFaceUp(),
+                                  this.moveCount, board.pendingSize() );
+    }
+
+    /**
+     * Get the most bytes {@link #writeSnapshot(ByteBuffer)} can take for
+     * this board, for sizing buffers.
+     *
+     * @return An upper bound on the size of a snapshot.
+     */
+    public int maxSnapshotBytes() {
+        return 1 + 4 * Varint.MAX_BYTES + Long.BYTES + board.maxEncodedBytes();
+    }
+
+    /**
+     * Write the state of the game into a buffer: the card order, the
+     * face-up and can-flip flags, the cards selected, the move count and
+     * the seed.  Observers are not part of the state.  The encoding is
+     * versioned and compact; the flags are bit-packed and the numbers are
+     * varints.  Snapshots of many games can be written one after another
+     * into the same (typically direct) buffer.
+     *
+     * @param out The buffer to write to, at its position.
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void writeSnapshot( ByteBuffer out ) {
+        out.put( SNAPSHOT_VERSION );
+        Varint.put( out, this.width );
+        Varint.put( out, this.height );
+        Varint.put( out, board.groupSize() );
+        Varint.put( out, this.moveCount );
+        out.putLong( this.seed );
+        board.encode( out );
+    }
+
+    /**
+     * Restore a game from a snapshot written by
+     * {@link #writeSnapshot(ByteBuffer)}, in one pass over the encoding.
+     *
+     * @param in The buffer to read from, at its position.
+     * @return A new model in the state of the snapshot, with no
+     * observers.
+     * @throws IllegalArgumentException if the snapshot is malformed or of
+     *                                  an unknown version
+     */
+    public static ConcentrationModel readSnapshot( ByteBuffer in ) {
+        byte version = in.get();
+        if ( version != 1 && version != SNAPSHOT_VERSION ) {
+            throw new IllegalArgumentException(
+                    "Unknown snapshot version " + version );
+        }
+        int width = Varint.get( in );
+        int height = Varint.get( in );
+        int groupSize = version == 1 ? DEFAULT_GROUP_SIZE : Varint.get( in );
+        int moveCount = Varint.get( in );
+        long seed = in.getLong();
+        ConcentrationModel model = new ConcentrationModel(
+                width, height, groupSize, seed, false );
+        model.board.decode( in );
+        model.moveCount = moveCount;
+        model.matchedPairs =
+                ( model.board.faceUpCount() - model.board.pendingSize() ) /
+                groupSize;
+        model.seed = seed;
+        model.rememberFaceUp();
+        return model;
     }
 
     /**
@@ -243,26 +915,201 @@ public class ConcentrationModel {
      * selected.
      */
     public int howManyCardsUp() {
-        return undoStack.size();
+        return board.pendingSize();
+    }
+
+    /**
+     * Return one of the cards selected in the turn in progress.
+     *
+     * @param k which selection, from 0 for the first card turned up
+     * @return the position of the card
+     * @throws IndexOutOfBoundsException if fewer than k + 1 cards are up
+     */
+    public int getSelectedCard( int k ) {
+        if ( k < 0 || k >= board.pendingSize() ) {
+            throw new IndexOutOfBoundsException(
+                    "selection " + k + " of " + board.pendingSize() );
+        }
+        return board.pendingAt( k );
+    }
+
+    /**
+     * Add a new observer that is notified on an executor rather than on
+     * the thread that changed the model.  A slow observer then never
+     * holds up the caller; see {@link AsyncObserver}.
+     * <p>
+     * Such an observer is meant to redraw from the model as it is when
+     * the update runs, so changes that queue up while it is behind are
+     * conflated: two or more in a row arrive as one update with a null
+     * event, meaning the whole board may have changed.  A cheat or a win
+     * is always delivered as its own event.  An observer that needs every
+     * event, such as a recorder, must be added without an executor.
+     *
+     * @param obs      an object that wants an
+     *                 {@link Observer#update(Object, Object)}
+     *                 with a {@link ModelEvent} when something changes here
+     * @param executor where the observer's updates are run, for example
+     *                 {@code Platform::runLater}
+     */
+    public void addObserver( Observer< ConcentrationModel, Object > obs,
+                             Executor executor ) {
+        addObserver( new AsyncObserver<>( obs, executor,
+                                          ConcentrationModel::isStateChange ) );
+    }
+
+    /**
+     * @param data the data sent with a notification
+     * @return true if it only tells that the board changed, so that an
+     * observer that redraws can skip it when a later change is queued
+     */
+    private static boolean isStateChange( Object data ) {
+        if ( !( data instanceof ModelEvent ) ) {
+            return true;
+        }
+        ModelEvent.Type type = ( ( ModelEvent ) data ).getType();
+        return type != ModelEvent.Type.CHEAT &&
+               type != ModelEvent.Type.GAME_OVER;
     }
 
     /**
      * Add a new observer to the list for this model
      * @param obs an object that wants an
      *            {@link Observer#update(Object, Object)}
-     *            when something changes here
+     *            with a {@link ModelEvent} when something changes here
      */
     public void addObserver( Observer< ConcentrationModel, Object > obs ) {
         this.observers.add( obs );
     }
 
     /**
-     * Announce to observers the model has changed;
+     * A view that reads the packed board directly.
      */
-    private void announce( String arg ) {
+    private class View implements BoardView {
+        /**
+         * true if every card shows its face in this view.
+         */
+        private final boolean cheat;
+
+        /**
+         * @param cheat true if every card shows its face in this view
+         */
+        View( boolean cheat ) {
+            this.cheat = cheat;
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public int size() {
+            return board.size();
+        }
+
+        @Override
+        public boolean isFaceUp( int n ) {
+            return this.cheat || board.isFaceUp( n );
+        }
+
+        @Override
+        public int getNumber( int n ) {
+            return isFaceUp( n ) ? board.number( n ) : -1;
+        }
+    }
+
+    /**
+     * Make the event describing the operation just applied.  No event is
+     * made when there are no observers.
+     *
+     * @param type    the operation that changed the model
+     * @param card    the card the operation was applied to, or -1
+     * @param count   the number of cards turned over, which are the
+     *                first count entries of the flipped buffer
+     * @param matched the cards that were matched
+     * @return the event, or null if nobody is listening
+     */
+    private ModelEvent event( ModelEvent.Type type, int card, int count,
+                              int[] matched ) {
+        if ( this.observers.isEmpty() ) {
+            return null;
+        }
+        return new ModelEvent( type, card, Arrays.copyOf( this.flipped, count ),
+                               matched, this.moveCount, this.seed );
+    }
+
+    /**
+     * Announce to observers the model has changed; each observer is
+     * passed a {@link ModelEvent} describing the change.
+     *
+     * @param event the change, or null if there is nothing to announce
+     */
+    void announce( ModelEvent event ) {
+        if ( event == null ) {
+            return;
+        }
+        ModelMetrics metrics = this.metrics;
+        if ( metrics == null ) {
+            for ( var obs : this.observers ) {
+                obs.update( this, event );
+            }
+            return;
+        }
         for ( var obs : this.observers ) {
-            obs.update( this, arg );
+            long start = System.nanoTime();
+            obs.update( this, event );
+            metrics.recordUpdate( obs, event, System.nanoTime() - start );
+        }
+    }
+
+    /**
+     * Measure this model's operations, match checks and observer updates.
+     * With no metrics installed (the default) the model only checks a
+     * field for null and never reads the clock.
+     *
+     * @param metrics Where the measurements go, or null to stop taking
+     *                them.
+     */
+    public void setMetrics( ModelMetrics metrics ) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return Where the measurements go, or null if none are taken.
+     */
+    public ModelMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Start timing an operation.
+     *
+     * @return the time now, or 0 if no metrics are installed
+     */
+    private long startTiming() {
+        return this.metrics == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Record how long an operation took, if it was timed.
+     *
+     * @param type  The operation.
+     * @param start What {@link #startTiming()} returned.
+     * @param event The event of the operation.
+     * @return event
+     */
+    private ModelEvent timed( ModelEvent.Type type, long start,
+                              ModelEvent event ) {
+        ModelMetrics metrics = this.metrics;
+        if ( metrics != null && start != 0 ) {
+            metrics.recordOperation( type, System.nanoTime() - start );
         }
+        return event;
     }
 }
 
@@ -0,0 +1,454 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * A concentration model that many threads may play on at once.
+ * <p>
+ * Writers serialize.  The moves on one board depend on each other (each
+ * card of a group is matched against the ones before it), so the state
+ * changes made by selectCard, undo, reset, cheat and the history moves
+ * are applied one at a time under the write side of a single
+ * {@link StampedLock} per board.  More threads playing one board do not
+ * make more moves; separate boards never contend.  Each change is a few
+ * word updates, so the lock is held only briefly, and never while
+ * observers run.
+ * <p>
+ * Readers use optimistic reads: they read without locking and then
+ * check that no write happened meanwhile, retrying if one did.  Readers
+ * therefore never hold up writers.  Only a reader that keeps losing the
+ * race falls back to the read lock.  Every query, including each query
+ * of the views returned by {@link #getBoardView()},
+ * {@link #getCheatView()} and {@link #getHints()}, reads this way, so
+ * each answer is true of a single moment; two answers may be of
+ * different moments.  {@link #snapshot()} is the way to get a consistent
+ * picture of the whole board.
+ * <p>
+ * The events of the changes are announced after the lock is released,
+ * in the order the changes were made, by whichever writer thread gets to
+ * them first.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class ConcurrentConcentrationModel extends ConcentrationModel {
+    /**
+     * How many times a reader tries without locking before it takes the
+     * read lock.
+     */
+    private static final int OPTIMISTIC_TRIES = 4;
+
+    /**
+     * Guards the board, the move count and the selections in progress.
+     */
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Events made under the lock and not yet announced, oldest first.
+     */
+    private final Queue< ModelEvent > outbox = new ConcurrentLinkedQueue<>();
+
+    /**
+     * true while some thread is announcing the events in the outbox.
+     */
+    private final AtomicBoolean announcing = new AtomicBoolean();
+
+    /**
+     * The board as the player sees it, read under the lock.
+     */
+    private final BoardView boardView = new ReadView( super.getBoardView() );
+
+    /**
+     * The board with every card showing, read under the lock.
+     */
+    private final BoardView cheatView = new ReadView( super.getCheatView() );
+
+    /**
+     * What the player has seen, read under the lock.
+     */
+    private final Hints hints = new ReadHints( super.getHints() );
+
+    /**
+     * Construct a concurrent model with the default square board.
+     */
+    public ConcurrentConcentrationModel() {
+        super();
+    }
+
+    /**
+     * Construct a concurrent model with a board of any shape.
+     *
+     * @param width  The number of columns on the board.
+     * @param height The number of rows on the board.
+     */
+    public ConcurrentConcentrationModel( int width, int height ) {
+        super( width, height );
+    }
+
+    /**
+     * Construct a concurrent model whose first deal is determined by a
+     * seed.
+     *
+     * @param width  The number of columns on the board.
+     * @param height The number of rows on the board.
+     * @param seed   The seed for the first shuffle.
+     */
+    public ConcurrentConcentrationModel( int width, int height, long seed ) {
+        super( width, height, seed );
+    }
+
+    /**
+     * Construct a concurrent model in which cards match in groups.
+     *
+     * @param width     The number of columns on the board.
+     * @param height    The number of rows on the board.
+     * @param groupSize The number of cards in a matching group.
+     * @param seed      The seed for the first shuffle.
+     */
+    public ConcurrentConcentrationModel( int width, int height, int groupSize,
+                                         long seed ) {
+        super( width, height, groupSize, seed );
+    }
+
+    @Override
+    public void selectCard( int n ) {
+        long stamp = this.lock.writeLock();
+        try {
+            post( applySelect( n ) );
+            post( applyGameOver() );
+        }
+        finally {
+            this.lock.unlockWrite( stamp );
+        }
+        flush();
+    }
+
+    @Override
+    public void undo() {
+        long stamp = this.lock.writeLock();
+        try {
+            post( applyUndo() );
+        }
+        finally {
+            this.lock.unlockWrite( stamp );
+        }
+        flush();
+    }
+
+    @Override
+    public void reset() {
+        long stamp = this.lock.writeLock();
+        try {
+            post( applyReset() );
+        }
+        finally {
+            this.lock.unlockWrite( stamp );
+        }
+        flush();
+    }
+
+    @Override
+    public void reset( long seed ) {
+        long stamp = this.lock.writeLock();
+        try {
+            post( applyReset( seed ) );
+        }
+        finally {
+            this.lock.unlockWrite( stamp );
+        }
+        flush();
+    }
+
+    @Override
+    public void cheat() {
+        long stamp = this.lock.writeLock();
+        try {
+            post( applyCheat() );
+        }
+        finally {
+            this.lock.unlockWrite( stamp );
+        }
+        flush();
+    }
+
+    @Override
+    public void undoMove() {
+        long stamp = this.lock.writeLock();
+        try {
+            post( applyUndoMove() );
+        }
+        finally {
+            this.lock.unlockWrite( stamp );
+        }
+        flush();
+    }
+
+    @Override
+    public void redoMove() {
+        long stamp = this.lock.writeLock();
+        try {
+            post( applyRedoMove() );
+            post( applyGameOver() );
+        }
+        finally {
+            this.lock.unlockWrite( stamp );
+        }
+        flush();
+    }
+
+    @Override
+    public boolean canUndoMove() {
+        return read( super::canUndoMove );
+    }
+
+    @Override
+    public boolean canRedoMove() {
+        return read( super::canRedoMove );
+    }
+
+    @Override
+    public boolean isWon() {
+        return read( super::isWon );
+    }
+
+    @Override
+    public int getMatchedPairs() {
+        return read( super::getMatchedPairs );
+    }
+
+    @Override
+    public boolean isMismatched() {
+        return read( super::isMismatched );
+    }
+
+    @Override
+    public int getMoveCount() {
+        return read( super::getMoveCount );
+    }
+
+    @Override
+    public int howManyCardsUp() {
+        return read( super::howManyCardsUp );
+    }
+
+    @Override
+    public int getSelectedCard( int k ) {
+        return read( () -> super.getSelectedCard( k ) );
+    }
+
+    @Override
+    public long getSeed() {
+        return read( super::getSeed );
+    }
+
+    @Override
+    public BoardView getBoardView() {
+        return this.boardView;
+    }
+
+    @Override
+    public BoardView getCheatView() {
+        return this.cheatView;
+    }
+
+    @Override
+    public Hints getHints() {
+        return this.hints;
+    }
+
+    @Override
+    public ArrayList< Card > getCards() {
+        return read( super::getCards );
+    }
+
+    @Override
+    public Card getCard( int n ) {
+        return read( () -> super.getCard( n ) );
+    }
+
+    @Override
+    public ArrayList< Card > getCheat() {
+        return read( super::getCheat );
+    }
+
+    @Override
+    public BoardSnapshot snapshot() {
+        return read( super::snapshot );
+    }
+
+    @Override
+    public void writeSnapshot( ByteBuffer out ) {
+        // writing has side effects on the buffer, so it cannot be retried
+        long stamp = this.lock.readLock();
+        try {
+            super.writeSnapshot( out );
+        }
+        finally {
+            this.lock.unlockRead( stamp );
+        }
+    }
+
+    /**
+     * Run a read of the model state so that its result reflects a single
+     * moment.  The read is first tried without locking; a result read
+     * while a write was in progress is thrown away.
+     *
+     * @param reader reads the state
+     * @param <T>    the type of the result
+     * @return the result of a read that saw no concurrent write
+     */
+    private < T > T read( Supplier< T > reader ) {
+        for ( int tries = 0; tries < OPTIMISTIC_TRIES; ++tries ) {
+            long stamp = this.lock.tryOptimisticRead();
+            if ( stamp != 0 ) {
+                try {
+                    T result = reader.get();
+                    if ( this.lock.validate( stamp ) ) {
+                        return result;
+                    }
+                }
+                catch ( RuntimeException e ) {
+                    // the state was torn by a concurrent write; try again
+                }
+            }
+            Thread.onSpinWait();
+        }
+        long stamp = this.lock.readLock();
+        try {
+            return reader.get();
+        }
+        finally {
+            this.lock.unlockRead( stamp );
+        }
+    }
+
+    /**
+     * Queue an event to be announced once the lock is released.  Called
+     * with the write lock held, so the queue order is the change order.
+     *
+     * @param event the event, or null if there is nothing to announce
+     */
+    private void post( ModelEvent event ) {
+        if ( event != null ) {
+            this.outbox.add( event );
+        }
+    }
+
+    /**
+     * Announce the queued events, unless another thread already is.
+     */
+    private void flush() {
+        while ( !this.outbox.isEmpty() &&
+                this.announcing.compareAndSet( false, true ) ) {
+            try {
+                ModelEvent event;
+                while ( ( event = this.outbox.poll() ) != null ) {
+                    announce( event );
+                }
+            }
+            finally {
+                this.announcing.set( false );
+            }
+        }
+    }
+
+    /**
+     * A view of the board each query of which is one read of the model.
+     */
+    private final class ReadView implements BoardView {
+        /**
+         * The base model's live view.
+         */
+        private final BoardView view;
+
+        /**
+         * @param view the base model's live view
+         */
+        ReadView( BoardView view ) {
+            this.view = view;
+        }
+
+        @Override
+        public int getWidth() {
+            return this.view.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return this.view.getHeight();
+        }
+
+        @Override
+        public int size() {
+            return this.view.size();
+        }
+
+        @Override
+        public boolean isFaceUp( int n ) {
+            return read( () -> this.view.isFaceUp( n ) );
+        }
+
+        @Override
+        public int getNumber( int n ) {
+            return read( () -> this.view.getNumber( n ) );
+        }
+    }
+
+    /**
+     * The player's knowledge, each query of which is one read of the
+     * model.
+     */
+    private final class ReadHints implements Hints {
+        /**
+         * The base model's knowledge.
+         */
+        private final Hints hints;
+
+        /**
+         * @param hints the base model's knowledge
+         */
+        ReadHints( Hints hints ) {
+            this.hints = hints;
+        }
+
+        @Override
+        public int hint() {
+            return read( this.hints::hint );
+        }
+
+        @Override
+        public int knownPair() {
+            return read( this.hints::knownPair );
+        }
+
+        @Override
+        public int partnerOf( int n ) {
+            return read( () -> this.hints.partnerOf( n ) );
+        }
+
+        @Override
+        public int partnerOfSelected() {
+            return read( this.hints::partnerOfSelected );
+        }
+
+        @Override
+        public boolean isSeen( int n ) {
+            return read( () -> this.hints.isSeen( n ) );
+        }
+
+        @Override
+        public int unseenCount() {
+            return read( this.hints::unseenCount );
+        }
+
+        @Override
+        public int unseenAt( int k ) {
+            return read( () -> this.hints.unseenAt( k ) );
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package model;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Shuffles decks ahead of time on a background thread.  A model given a
+ * pool with {@link ConcentrationModel#setDeckPool(DeckPool)} swaps a
+ * ready deck onto its board on each unseeded reset, so the reset costs
+ * the same however large the board is.  Each deck remembers the seed it
+ * was dealt from, so a game that started from a pooled deck can still be
+ * dealt again with {@link ConcentrationModel#reset(long)}.
+ * <p>
+ * The arrays of the decks a model puts down are handed back to the pool
+ * and dealt again, so a busy pool makes no garbage.  One pool may serve
+ * any number of models with the same number of cards and group size.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class DeckPool implements Closeable {
+    /**
+     * The number of cards in each deck.
+     */
+    private final int numCards;
+
+    /**
+     * The number of cards in a matching group.
+     */
+    private final int groupSize;
+
+    /**
+     * Decks shuffled and waiting to be used.
+     */
+    private final BlockingQueue< Deck > ready;
+
+    /**
+     * Used decks whose arrays can be dealt again.
+     */
+    private final Queue< Deck > spare = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The seeds of the decks; only the dealing thread uses it.
+     */
+    private final SplittableRandom seeds;
+
+    /**
+     * The thread that deals.
+     */
+    private final Thread dealer;
+
+    /**
+     * Start a pool with seeds that differ from run to run.
+     *
+     * @param numCards the number of cards in each deck
+     * @param capacity the number of decks kept ready
+     */
+    public DeckPool( int numCards, int capacity ) {
+        this( numCards, capacity, ConcentrationModel.nextSeed() );
+    }
+
+    /**
+     * Start a pool of decks of pairs whose sequence of decks is determined
+     * by a seed.
+     *
+     * @param numCards the number of cards in each deck
+     * @param capacity the number of decks kept ready
+     * @param seed     the seed for the seeds of the decks
+     * @throws IllegalArgumentException if numCards is not positive and
+     *                                  even, or capacity is not positive
+     */
+    public DeckPool( int numCards, int capacity, long seed ) {
+        this( numCards, ConcentrationModel.DEFAULT_GROUP_SIZE, capacity,
+              seed );
+    }
+
+    /**
+     * Start a pool whose sequence of decks is determined by a seed.
+     *
+     * @param numCards  the number of cards in each deck
+     * @param groupSize the number of cards in a matching group
+     * @param capacity  the number of decks kept ready
+     * @param seed      the seed for the seeds of the decks
+     * @throws IllegalArgumentException if numCards is not a positive
+     *                                  multiple of groupSize, or capacity
+     *                                  is not positive
+     */
+    public DeckPool( int numCards, int groupSize, int capacity, long seed ) {
+        if ( numCards <= 0 || groupSize < 2 || numCards % groupSize != 0 ||
+             capacity <= 0 ) {
+            throw new IllegalArgumentException(
+                    "Bad deck pool: " + numCards + " cards in groups of " +
+                    groupSize + ", " + capacity + " decks" );
+        }
+        this.numCards = numCards;
+        this.groupSize = groupSize;
+        this.ready = new ArrayBlockingQueue<>( capacity );
+        this.seeds = new SplittableRandom( seed );
+        this.dealer = new Thread( this::deal, "deck-pool" );
+        this.dealer.setDaemon( true );
+        this.dealer.start();
+    }
+
+    /**
+     * @return the number of cards in each deck
+     */
+    public int getNumCards() {
+        return this.numCards;
+    }
+
+    /**
+     * @return the number of cards in a matching group
+     */
+    public int getGroupSize() {
+        return this.groupSize;
+    }
+
+    /**
+     * @return the number of decks ready now
+     */
+    public int available() {
+        return this.ready.size();
+    }
+
+    /**
+     * Take a ready deck if there is one.
+     *
+     * @return the deck, or null if the dealer has fallen behind
+     */
+    Deck poll() {
+        return this.ready.poll();
+    }
+
+    /**
+     * Hand back a deck whose array is no longer on any board.
+     *
+     * @param deck the deck
+     */
+    void recycle( Deck deck ) {
+        this.spare.offer( deck );
+    }
+
+    /**
+     * Keep the ready queue full until the pool is closed.
+     */
+    private void deal() {
+        try {
+            while ( !Thread.currentThread().isInterrupted() ) {
+                Deck deck = this.spare.poll();
+                if ( deck == null ) {
+                    deck = new Deck( new int[ this.numCards ] );
+                }
+                deck.seed = this.seeds.nextLong();
+                PackedBoard.deal( deck.numbers, this.groupSize,
+                                  new SplittableRandom( deck.seed ) );
+                this.ready.put( deck );
+            }
+        }
+        catch ( InterruptedException e ) {
+            // closed
+        }
+    }
+
+    /**
+     * Stop dealing.  Decks already dealt can still be taken.
+     */
+    @Override
+    public void close() {
+        this.dealer.interrupt();
+    }
+
+    /**
+     * A shuffled deck and the seed it was dealt from.
+     */
+    static final class Deck {
+        /**
+         * The card number at each position.
+         */
+        int[] numbers;
+
+        /**
+         * The seed the numbers were dealt from.
+         */
+        long seed;
+
+        /**
+         * @param numbers the array to deal into
+         */
+        Deck( int[] numbers ) {
+            this.numbers = numbers;
+        }
+    }
+}
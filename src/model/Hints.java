@@ -0,0 +1,65 @@
+package model;
+
+/**
+ * A live, read-only view of what the player has seen of the board, kept
+ * up to date by the model as cards are turned over.  Every query takes
+ * constant time and creates no objects: nothing scans or copies the
+ * board, so views and bots can ask on every move of a game of any size.
+ * <p>
+ * Knowledge is never lost: a card stays seen when it is turned back over
+ * or when the move that showed it is taken back.  It is forgotten only by
+ * a new deal.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public interface Hints {
+    /**
+     * Suggest the next card to select, as a player with perfect memory
+     * would: a seen partner of the cards selected in the turn, else a card
+     * of a group that is known but not matched, else a card never seen.
+     *
+     * @return the index of the card, or -1 if every group is matched
+     */
+    int hint();
+
+    /**
+     * @return a card of a group (a pair in the classic game) whose
+     * positions have all been seen but which is not matched yet, or -1 if
+     * there is none
+     */
+    int knownPair();
+
+    /**
+     * @param n an integer referring to the nth card
+     * @return the position of another card with the same number that has
+     * been seen and is face down, or -1 if there is none
+     */
+    int partnerOf( int n );
+
+    /**
+     * @return the position of a seen, face-down card that matches the
+     * cards selected in the turn in progress; -1 if none has been seen, no
+     * card is selected or the turn has failed
+     */
+    int partnerOfSelected();
+
+    /**
+     * @param n an integer referring to the nth card
+     * @return true if the card has been face up since the deal
+     */
+    boolean isSeen( int n );
+
+    /**
+     * @return the number of cards never seen
+     */
+    int unseenCount();
+
+    /**
+     * List the cards never seen, in no particular order.  The order
+     * changes as cards are seen.
+     *
+     * @param k a number from 0 to {@link #unseenCount()} - 1
+     * @return the position of the kth card never seen
+     */
+    int unseenAt( int k );
+}
@@ -0,0 +1,350 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The undo/redo history of one game, kept as compact delta records in a
+ * single growable int array.  A record holds only what one move changed:
+ * the move count, the selections in progress and the flags of the few
+ * cards it touched, each before and after.  A move costs at most 7 + 5g
+ * ints for groups of g cards (17 for pairs) however large the board is,
+ * and undoing or redoing it rewrites only those cards.
+ * <p>
+ * A record is laid out as
+ * <pre>
+ * moves before, moves after,
+ * pending before (size, then g slots), pending after (size, then g slots),
+ * matched group (g cards, or -1 in the first slot),
+ * cell count, then per cell: index, flags before (bits 0-1), after (bits 2-3)
+ * </pre>
+ *
+ * @author Adrian Burgos awb8593
+ */
+final class History {
+
+    /**
+     * The flag bit for a face-up card.
+     */
+    private static final int FACE_UP = 1;
+
+    /**
+     * The flag bit for a card that may be flipped.
+     */
+    private static final int CAN_FLIP = 2;
+
+    /**
+     * The number of cards in a matching group.
+     */
+    private final int groupSize;
+
+    /**
+     * Where the pending selections after the move are in a record.
+     */
+    private final int pendingAfter;
+
+    /**
+     * Where the matched group is in a record.
+     */
+    private final int matchedAt;
+
+    /**
+     * The ints in a record before its cells.
+     */
+    private final int header;
+
+    /**
+     * The records, back to back.
+     */
+    private int[] log = new int[ 64 ];
+
+    /**
+     * Where each record starts in log; entry count is where the next one
+     * goes.
+     */
+    private int[] starts = new int[ 16 ];
+
+    /**
+     * The number of records that are applied (and can be undone).
+     */
+    private int applied;
+
+    /**
+     * The number of records, applied or undone.
+     */
+    private int count;
+
+    /**
+     * The record being captured by begin and commit.
+     */
+    private final int[] scratch;
+
+    /**
+     * The number of cells in the record being captured.
+     */
+    private int cells;
+
+    /**
+     * The move count the last undo or redo put back.
+     */
+    private int restoredMoveCount;
+
+    /**
+     * true if the move last undone or redone matched a pair.
+     */
+    private boolean restoredMatch;
+
+    /**
+     * Where the record last undone or redone starts.
+     */
+    private int restoredStart;
+
+    /**
+     * @param groupSize the number of cards in a matching group
+     */
+    History( int groupSize ) {
+        this.groupSize = groupSize;
+        this.pendingAfter = 3 + groupSize;
+        this.matchedAt = 4 + 2 * groupSize;
+        this.header = 5 + 3 * groupSize;
+        // a move touches the selections in progress and the card selected
+        this.scratch = new int[ this.header + 2 * ( groupSize + 1 ) ];
+    }
+
+    /**
+     * Forget every record.
+     */
+    void clear() {
+        this.applied = 0;
+        this.count = 0;
+    }
+
+    /**
+     * @return true if there is a move to undo
+     */
+    boolean canUndo() {
+        return this.applied > 0;
+    }
+
+    /**
+     * @return true if there is an undone move to redo
+     */
+    boolean canRedo() {
+        return this.applied < this.count;
+    }
+
+    /**
+     * @return the number of moves that can be undone
+     */
+    int depth() {
+        return this.applied;
+    }
+
+    /**
+     * Capture the state a move is about to change: the selections in
+     * progress and the cards they and the card selected are on.
+     *
+     * @param board     the board
+     * @param moveCount the move count
+     * @param card      the card about to be selected, or -1
+     */
+    void begin( PackedBoard board, int moveCount, int card ) {
+        int[] r = this.scratch;
+        r[ 0 ] = moveCount;
+        capturePending( board, r, 2 );
+        this.cells = 0;
+        for ( int k = 0; k < board.pendingSize(); ++k ) {
+            addCell( board, board.pendingAt( k ) );
+        }
+        if ( card >= 0 ) {
+            addCell( board, card );
+        }
+    }
+
+    /**
+     * Capture the state after the move and append the record, dropping
+     * any undone moves.  A move that changed nothing leaves no record.
+     *
+     * @param board     the board
+     * @param moveCount the move count
+     * @param matched   the group the move matched, or an empty array
+     */
+    void commit( PackedBoard board, int moveCount, int[] matched ) {
+        int[] r = this.scratch;
+        int g = this.groupSize;
+        r[ 1 ] = moveCount;
+        capturePending( board, r, this.pendingAfter );
+        r[ this.matchedAt ] = -1;
+        System.arraycopy( matched, 0, r, this.matchedAt, matched.length );
+        r[ this.header - 1 ] = this.cells;
+        boolean changed = r[ 0 ] != r[ 1 ] ||
+                          !Arrays.equals( r, 2, 3 + g, r, this.pendingAfter,
+                                          this.pendingAfter + 1 + g );
+        for ( int c = 0; c < this.cells; ++c ) {
+            int at = this.header + 2 * c;
+            int flags = r[ at + 1 ] | flags( board, r[ at ] ) << 2;
+            r[ at + 1 ] = flags;
+            changed |= ( flags & 3 ) != flags >>> 2;
+        }
+        if ( !changed ) {
+            return;
+        }
+        int length = this.header + 2 * this.cells;
+        this.count = this.applied;
+        int start = this.count == 0 ? 0 : end( this.count - 1 );
+        if ( this.count + 1 >= this.starts.length ) {
+            this.starts = Arrays.copyOf( this.starts, 2 * this.starts.length );
+        }
+        if ( start + length > this.log.length ) {
+            this.log = Arrays.copyOf( this.log,
+                                      Math.max( 2 * this.log.length,
+                                                start + length ) );
+        }
+        System.arraycopy( r, 0, this.log, start, length );
+        this.starts[ this.count ] = start;
+        ++this.count;
+        this.applied = this.count;
+    }
+
+    /**
+     * Put the board back as it was before the last applied move.
+     *
+     * @param board   the board
+     * @param flipped receives the cards turned over
+     * @return the number of cards turned over, or -1 if there was no
+     * move to undo
+     */
+    int undo( PackedBoard board, int[] flipped ) {
+        if ( !canUndo() ) {
+            return -1;
+        }
+        return restore( board, this.starts[ --this.applied ], 0, flipped );
+    }
+
+    /**
+     * Apply the next undone move again.
+     *
+     * @param board   the board
+     * @param flipped receives the cards turned over
+     * @return the number of cards turned over, or -1 if there was no
+     * move to redo
+     */
+    int redo( PackedBoard board, int[] flipped ) {
+        if ( !canRedo() ) {
+            return -1;
+        }
+        return restore( board, this.starts[ this.applied++ ], 1, flipped );
+    }
+
+    /**
+     * @return the move count the last undo or redo put back
+     */
+    int restoredMoveCount() {
+        return this.restoredMoveCount;
+    }
+
+    /**
+     * @return true if the move last undone or redone matched a pair
+     */
+    boolean restoredMatch() {
+        return this.restoredMatch;
+    }
+
+    /**
+     * @return a card of the group matched by the move last undone or
+     * redone, or -1 if it matched none
+     */
+    int restoredMatchCard() {
+        return this.log[ this.restoredStart + this.matchedAt ];
+    }
+
+    /**
+     * @return the group matched by the move just redone, or an empty array
+     */
+    int[] redoneMatch() {
+        int at = this.starts[ this.applied - 1 ] + this.matchedAt;
+        return this.log[ at ] < 0 ? ModelEvent.NONE
+                : Arrays.copyOfRange( this.log, at, at + this.groupSize );
+    }
+
+    /**
+     * Write one side of a record onto the board.
+     *
+     * @param board   the board
+     * @param start   where the record starts
+     * @param side    0 for the state before the move, 1 for after
+     * @param flipped receives the cards turned over
+     * @return the number of cards turned over
+     */
+    private int restore( PackedBoard board, int start, int side,
+                         int[] flipped ) {
+        int[] r = this.log;
+        this.restoredStart = start;
+        this.restoredMoveCount = r[ start + side ];
+        this.restoredMatch = r[ start + this.matchedAt ] >= 0;
+        int p = start + ( side == 0 ? 2 : this.pendingAfter );
+        board.setPending( r[ p ], r, p + 1 );
+        int turned = 0;
+        for ( int c = 0; c < r[ start + this.header - 1 ]; ++c ) {
+            int at = start + this.header + 2 * c;
+            int card = r[ at ];
+            int flags = r[ at + 1 ] >>> 2 * side & 3;
+            if ( board.isFaceUp( card ) != ( ( flags & FACE_UP ) != 0 ) ) {
+                flipped[ turned++ ] = card;
+            }
+            board.setCard( card, ( flags & FACE_UP ) != 0,
+                           ( flags & CAN_FLIP ) != 0 );
+        }
+        return turned;
+    }
+
+    /**
+     * @param index a record number
+     * @return where the record ends in log
+     */
+    private int end( int index ) {
+        int start = this.starts[ index ];
+        return start + this.header + 2 * this.log[ start + this.header - 1 ];
+    }
+
+    /**
+     * Copy the selections in progress into a record.
+     *
+     * @param board the board
+     * @param r     the record
+     * @param at    where they go
+     */
+    private void capturePending( PackedBoard board, int[] r, int at ) {
+        int size = board.pendingSize();
+        r[ at ] = size;
+        for ( int k = 0; k < this.groupSize; ++k ) {
+            r[ at + 1 + k ] = k < size ? board.pendingAt( k ) : -1;
+        }
+    }
+
+    /**
+     * Add a card to the record being captured, unless it is there.
+     *
+     * @param board the board
+     * @param card  the card
+     */
+    private void addCell( PackedBoard board, int card ) {
+        for ( int c = 0; c < this.cells; ++c ) {
+            if ( this.scratch[ this.header + 2 * c ] == card ) {
+                return;
+            }
+        }
+        int at = this.header + 2 * this.cells++;
+        this.scratch[ at ] = card;
+        this.scratch[ at + 1 ] = flags( board, card );
+    }
+
+    /**
+     * @param board the board
+     * @param card  a card
+     * @return its face-up and can-flip flags
+     */
+    private static int flags( PackedBoard board, int card ) {
+        return ( board.isFaceUp( card ) ? FACE_UP : 0 ) |
+               ( board.canFlip( card ) ? CAN_FLIP : 0 );
+    }
+}
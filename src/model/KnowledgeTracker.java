@@ -0,0 +1,265 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * What the player has seen of the board, updated by the model as each
+ * card is turned up and each pair is matched.  The knowledge is kept in
+ * primitive tables indexed by position and by number:
+ * <ul>
+ * <li>the positions seen of each number, in one slot per card of its
+ * group,</li>
+ * <li>the cards never seen, as a dense set (each card remembers its slot,
+ * so removing one takes constant time),</li>
+ * <li>the numbers whose positions are all known but are not matched, as
+ * another dense set.</li>
+ * </ul>
+ * Every update and query takes constant time, or time in the group size
+ * at most.  A new deal takes time in the number of cards seen in the last
+ * one, not in the size of the board: seeing a card swaps it to the end of
+ * the unseen set, so forgetting undoes those swaps, newest first, and
+ * clears the entries of only the numbers seen.
+ *
+ * @author Adrian Burgos awb8593
+ */
+final class KnowledgeTracker implements Hints {
+    /**
+     * The board the player is looking at.
+     */
+    private final PackedBoard board;
+
+    /**
+     * The number of cards in a matching group.
+     */
+    private final int groupSize;
+
+    /**
+     * The positions each number was seen at: number x has the slots from
+     * x * groupSize, filled in the order they were seen.
+     */
+    private final int[] seenAt;
+
+    /**
+     * For each number, how many of its positions have been seen.
+     */
+    private final int[] seenCount;
+
+    /**
+     * The cards never seen, densely packed in the first unseenSize slots;
+     * the cards seen follow, the one seen last first.
+     */
+    private final int[] unseen;
+
+    /**
+     * The slot of each card in unseen, or the complement (~) of the slot
+     * it had when it was seen.
+     */
+    private final int[] unseenSlot;
+
+    /**
+     * The number of cards never seen.
+     */
+    private int unseenSize;
+
+    /**
+     * The numbers known and not matched, densely packed in the first
+     * knownSize slots.
+     */
+    private final int[] known;
+
+    /**
+     * The slot of each number in known, or -1 if it is not there.
+     */
+    private final int[] knownSlot;
+
+    /**
+     * The number of numbers known and not matched.
+     */
+    private int knownSize;
+
+    /**
+     * The numbers with at least one position seen, in the first
+     * begunSize slots.
+     */
+    private final int[] begun;
+
+    /**
+     * The number of numbers with at least one position seen.
+     */
+    private int begunSize;
+
+    /**
+     * Create the tracker for a board that has just been dealt.
+     *
+     * @param board the board
+     */
+    KnowledgeTracker( PackedBoard board ) {
+        int cards = board.size();
+        int groups = cards / board.groupSize();
+        this.board = board;
+        this.groupSize = board.groupSize();
+        this.seenAt = new int[ cards ];
+        this.seenCount = new int[ groups ];
+        this.unseen = new int[ cards ];
+        this.unseenSlot = new int[ cards ];
+        this.known = new int[ groups ];
+        this.knownSlot = new int[ groups ];
+        this.begun = new int[ groups ];
+        Arrays.fill( this.knownSlot, -1 );
+        for ( int i = 0; i < cards; ++i ) {
+            this.unseen[ i ] = i;
+            this.unseenSlot[ i ] = i;
+        }
+        this.unseenSize = cards;
+    }
+
+    /**
+     * Forget everything, for a new deal.  Only the entries changed since
+     * the last deal are put back, so the board may already hold the new
+     * deal.
+     */
+    void forget() {
+        for ( int k = this.unseenSize; k < this.unseen.length; ++k ) {
+            // undo the swap that moved this card here when it was seen
+            int n = this.unseen[ k ];
+            int slot = ~this.unseenSlot[ n ];
+            int last = this.unseen[ slot ];
+            this.unseen[ slot ] = n;
+            this.unseenSlot[ n ] = slot;
+            this.unseen[ k ] = last;
+            this.unseenSlot[ last ] = k;
+        }
+        this.unseenSize = this.unseen.length;
+        for ( int k = 0; k < this.begunSize; ++k ) {
+            this.seenCount[ this.begun[ k ] ] = 0;
+        }
+        this.begunSize = 0;
+        for ( int k = 0; k < this.knownSize; ++k ) {
+            this.knownSlot[ this.known[ k ] ] = -1;
+        }
+        this.knownSize = 0;
+    }
+
+    /**
+     * Remember a card that was turned face up.
+     *
+     * @param n the position of the card
+     */
+    void see( int n ) {
+        int slot = this.unseenSlot[ n ];
+        if ( slot < 0 ) {
+            return;
+        }
+        int end = --this.unseenSize;
+        int last = this.unseen[ end ];
+        this.unseen[ slot ] = last;
+        this.unseenSlot[ last ] = slot;
+        this.unseen[ end ] = n;
+        this.unseenSlot[ n ] = ~slot;
+
+        int number = this.board.number( n );
+        int count = this.seenCount[ number ]++;
+        if ( count == 0 ) {
+            this.begun[ this.begunSize++ ] = number;
+        }
+        this.seenAt[ number * this.groupSize + count ] = n;
+        if ( count + 1 == this.groupSize ) {
+            addKnown( number );
+        }
+    }
+
+    /**
+     * Note that a group was matched, or that the match was taken back.
+     *
+     * @param n       the position of a card of the group
+     * @param matched true if the group is now matched
+     */
+    void matched( int n, boolean matched ) {
+        int number = this.board.number( n );
+        if ( matched ) {
+            removeKnown( number );
+        }
+        else if ( this.seenCount[ number ] == this.groupSize ) {
+            addKnown( number );
+        }
+    }
+
+    /**
+     * @param number a number whose positions have all been seen
+     */
+    private void addKnown( int number ) {
+        if ( this.knownSlot[ number ] < 0 ) {
+            this.known[ this.knownSize ] = number;
+            this.knownSlot[ number ] = this.knownSize++;
+        }
+    }
+
+    /**
+     * @param number a number that was matched
+     */
+    private void removeKnown( int number ) {
+        int slot = this.knownSlot[ number ];
+        if ( slot >= 0 ) {
+            int last = this.known[ --this.knownSize ];
+            this.known[ slot ] = last;
+            this.knownSlot[ last ] = slot;
+            this.knownSlot[ number ] = -1;
+        }
+    }
+
+    @Override
+    public int hint() {
+        int partner = partnerOfSelected();
+        if ( partner >= 0 ) {
+            return partner;
+        }
+        if ( this.board.pendingSize() == 0 || this.board.mismatched() ) {
+            int pair = knownPair();
+            if ( pair >= 0 ) {
+                return pair;
+            }
+        }
+        return this.unseenSize > 0 ? this.unseen[ 0 ] : -1;
+    }
+
+    @Override
+    public int knownPair() {
+        return this.knownSize > 0
+                ? this.seenAt[ this.known[ this.knownSize - 1 ] *
+                               this.groupSize ] : -1;
+    }
+
+    @Override
+    public int partnerOf( int n ) {
+        int number = this.board.number( n );
+        int from = number * this.groupSize;
+        for ( int i = from; i < from + this.seenCount[ number ]; ++i ) {
+            int m = this.seenAt[ i ];
+            if ( m != n && !this.board.isFaceUp( m ) ) {
+                return m;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int partnerOfSelected() {
+        return this.board.pendingSize() > 0 && !this.board.mismatched()
+                ? partnerOf( this.board.pendingAt( 0 ) ) : -1;
+    }
+
+    @Override
+    public boolean isSeen( int n ) {
+        return this.unseenSlot[ n ] < 0;
+    }
+
+    @Override
+    public int unseenCount() {
+        return this.unseenSize;
+    }
+
+    @Override
+    public int unseenAt( int k ) {
+        return this.unseen[ k ];
+    }
+}
@@ -0,0 +1,115 @@
+package model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in power-of-two buckets: bucket b counts the
+ * durations of b significant bits, so bucket 0 holds 0 ns and bucket b
+ * holds [2^(b-1), 2^b) ns.  Recording is a few instructions and never
+ * blocks, even when many threads record at once.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class LatencyHistogram {
+    /**
+     * The number of buckets; enough for any non-negative long.
+     */
+    public static final int BUCKETS = 64;
+
+    /**
+     * The count in each bucket.
+     */
+    private final LongAdder[] buckets = new LongAdder[ BUCKETS ];
+
+    /**
+     * The sum of every duration recorded.
+     */
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Create an empty histogram.
+     */
+    public LatencyHistogram() {
+        for ( int b = 0; b < BUCKETS; ++b ) {
+            this.buckets[ b ] = new LongAdder();
+        }
+    }
+
+    /**
+     * Count one duration.
+     *
+     * @param nanos the duration; negative values count as 0
+     */
+    public void record( long nanos ) {
+        nanos = Math.max( 0, nanos );
+        this.buckets[ Long.SIZE - Long.numberOfLeadingZeros( nanos ) ]
+                .increment();
+        this.total.add( nanos );
+    }
+
+    /**
+     * @param bucket a bucket number
+     * @return the number of durations in it
+     */
+    public long count( int bucket ) {
+        return this.buckets[ bucket ].sum();
+    }
+
+    /**
+     * @return the number of durations recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for ( LongAdder bucket : this.buckets ) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return the mean duration in nanoseconds, or 0 if there are none
+     */
+    public double mean() {
+        long count = getCount();
+        return count == 0 ? 0 : ( double ) this.total.sum() / count;
+    }
+
+    /**
+     * @param p a fraction between 0 and 1
+     * @return an upper bound, in nanoseconds, on the duration that a
+     * fraction p of the durations do not exceed; 0 if there are none
+     */
+    public long percentile( double p ) {
+        long[] counts = new long[ BUCKETS ];
+        long count = 0;
+        for ( int b = 0; b < BUCKETS; ++b ) {
+            counts[ b ] = this.buckets[ b ].sum();
+            count += counts[ b ];
+        }
+        long rank = ( long ) Math.ceil( p * count );
+        long seen = 0;
+        for ( int b = 0; b < BUCKETS; ++b ) {
+            seen += counts[ b ];
+            if ( seen >= rank && counts[ b ] > 0 ) {
+                return upperBound( b );
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param bucket a bucket number
+     * @return the largest duration the bucket holds
+     */
+    private static long upperBound( int bucket ) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE
+                : ( 1L << bucket ) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format( "n=%d mean=%.0fns p50<=%dns p99<=%dns",
+                              getCount(), mean(), percentile( 0.5 ),
+                              percentile( 0.99 ) );
+    }
+}
@@ -0,0 +1,159 @@
+package model;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a model's measurements in memory: a latency histogram per
+ * operation, the match hits and misses, and a histogram of observer
+ * update times.  An update slower than the threshold is also counted as
+ * slow and, when Flight Recorder is recording, reported as a
+ * {@code concentration.SlowObserver} event.
+ * <p>
+ * One registry may be shared by many models, and read at any time.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class MetricsRegistry implements ModelMetrics {
+    /**
+     * The update time above which an observer is slow, by default.
+     */
+    public static final long DEFAULT_SLOW_NANOS = 1_000_000;
+
+    /**
+     * The latency of each operation.
+     */
+    private final Map< ModelEvent.Type, LatencyHistogram > operations =
+            new EnumMap<>( ModelEvent.Type.class );
+
+    /**
+     * The number of second cards that made a pair.
+     */
+    private final LongAdder matches = new LongAdder();
+
+    /**
+     * The number of second cards that did not.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The time observers took to handle each change.
+     */
+    private final LatencyHistogram updates = new LatencyHistogram();
+
+    /**
+     * The number of updates slower than slowNanos.
+     */
+    private final LongAdder slowUpdates = new LongAdder();
+
+    /**
+     * The update time above which an observer is slow.
+     */
+    private final long slowNanos;
+
+    /**
+     * Create a registry with the default slow-observer threshold.
+     */
+    public MetricsRegistry() {
+        this( DEFAULT_SLOW_NANOS );
+    }
+
+    /**
+     * Create a registry.
+     *
+     * @param slowNanos the update time, in nanoseconds, above which an
+     *                  observer is slow
+     */
+    public MetricsRegistry( long slowNanos ) {
+        this.slowNanos = slowNanos;
+        for ( ModelEvent.Type type : ModelEvent.Type.values() ) {
+            this.operations.put( type, new LatencyHistogram() );
+        }
+    }
+
+    @Override
+    public void recordOperation( ModelEvent.Type type, long nanos ) {
+        this.operations.get( type ).record( nanos );
+    }
+
+    @Override
+    public void recordMatch( boolean matched ) {
+        ( matched ? this.matches : this.misses ).increment();
+    }
+
+    @Override
+    public void recordUpdate( Observer< ConcentrationModel, Object > observer,
+                              ModelEvent event, long nanos ) {
+        this.updates.record( nanos );
+        if ( nanos > this.slowNanos ) {
+            this.slowUpdates.increment();
+            SlowObserverEvent slow = new SlowObserverEvent();
+            if ( slow.shouldCommit() ) {
+                slow.observer = observer.getClass().getName();
+                slow.operation = event.getType().name();
+                slow.updateTime = nanos;
+                slow.commit();
+            }
+        }
+    }
+
+    /**
+     * @param type an operation
+     * @return the latencies of that operation
+     */
+    public LatencyHistogram getLatency( ModelEvent.Type type ) {
+        return this.operations.get( type );
+    }
+
+    /**
+     * @param type an operation
+     * @return the number of times it was applied
+     */
+    public long getCount( ModelEvent.Type type ) {
+        return this.operations.get( type ).getCount();
+    }
+
+    /**
+     * @return the number of second cards that made a pair
+     */
+    public long getMatches() {
+        return this.matches.sum();
+    }
+
+    /**
+     * @return the number of second cards that did not make a pair
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the time observers took to handle each change
+     */
+    public LatencyHistogram getUpdateLatency() {
+        return this.updates;
+    }
+
+    /**
+     * @return the number of observer updates slower than the threshold
+     */
+    public long getSlowUpdates() {
+        return this.slowUpdates.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for ( Map.Entry< ModelEvent.Type, LatencyHistogram > e :
+                this.operations.entrySet() ) {
+            text.append( e.getKey() ).append( ": " ).append( e.getValue() )
+                .append( '\n' );
+        }
+        text.append( "matches: " ).append( getMatches() )
+            .append( " misses: " ).append( getMisses() ).append( '\n' );
+        text.append( "updates: " ).append( this.updates )
+            .append( " slow: " ).append( getSlowUpdates() );
+        return text.toString();
+    }
+}
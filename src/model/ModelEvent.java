@@ -0,0 +1,166 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * The data a {@link ConcentrationModel} sends to its observers: what kind
+ * of operation changed the model and exactly which cards it turned over.
+ * A view can repaint just those cards instead of the whole board.
+ * A RESET event changes every card, so it carries no indices.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class ModelEvent {
+    /**
+     * The operations that notify observers.
+     */
+    public enum Type {
+        /** A card was selected. */
+        SELECT,
+        /** A card selection was taken back. */
+        UNDO,
+        /** The board was turned face down and shuffled. */
+        RESET,
+        /** The player asked to see where all the cards are. */
+        CHEAT,
+        /** A whole move was taken back from the game history. */
+        UNDO_MOVE,
+        /** A move taken back from the game history was made again. */
+        REDO_MOVE,
+        /** The last group was matched; sent right after the move. */
+        GAME_OVER
+    }
+
+    /**
+     * An empty list of indices.
+     */
+    static final int[] NONE = new int[ 0 ];
+
+    /**
+     * The operation that changed the model.
+     */
+    private final Type type;
+
+    /**
+     * The card the operation was applied to, or -1.
+     */
+    private final int card;
+
+    /**
+     * The cards that were turned face up or face down.
+     */
+    private final int[] flipped;
+
+    /**
+     * The cards that were matched by the operation.
+     */
+    private final int[] matched;
+
+    /**
+     * The move count after the operation.
+     */
+    private final int moveCount;
+
+    /**
+     * The seed of the deal in play after the operation.
+     */
+    private final long seed;
+
+    /**
+     * Create an event.  The arrays are owned by the event from now on.
+     *
+     * @param type      the operation that changed the model
+     * @param card      the card the operation was applied to, or -1
+     * @param flipped   the cards that were turned over
+     * @param matched   the cards that were matched
+     * @param moveCount the move count after the operation
+     * @param seed      the seed of the deal in play after the operation
+     */
+    ModelEvent( Type type, int card, int[] flipped, int[] matched,
+                int moveCount, long seed ) {
+        this.type = type;
+        this.card = card;
+        this.flipped = flipped;
+        this.matched = matched;
+        this.moveCount = moveCount;
+        this.seed = seed;
+    }
+
+    /**
+     * @return the operation that changed the model
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * @return the card selected or taken back, or -1 if the operation
+     * does not apply to a single card
+     */
+    public int getCard() {
+        return this.card;
+    }
+
+    /**
+     * @return the number of cards that were turned face up or face down
+     */
+    public int flippedCount() {
+        return this.flipped.length;
+    }
+
+    /**
+     * @param k a position between 0 and flippedCount() - 1
+     * @return the index of the kth card turned over
+     */
+    public int flipped( int k ) {
+        return this.flipped[ k ];
+    }
+
+    /**
+     * @return true if the operation completed a match
+     */
+    public boolean isMatch() {
+        return this.matched.length > 0;
+    }
+
+    /**
+     * @return the number of cards in the completed match, 0 if none
+     */
+    public int matchedCount() {
+        return this.matched.length;
+    }
+
+    /**
+     * @param k a position between 0 and matchedCount() - 1
+     * @return the index of the kth card of the match
+     */
+    public int matched( int k ) {
+        return this.matched[ k ];
+    }
+
+    /**
+     * @return the number of moves made once the operation was done
+     */
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * @return the seed that dealt the board in play once the operation was
+     * done; for a RESET event, the seed of the new deal
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * @return a short description of the event
+     */
+    @Override
+    public String toString() {
+        return this.type + " card=" + this.card +
+               " flipped=" + Arrays.toString( this.flipped ) +
+               " matched=" + Arrays.toString( this.matched ) +
+               " moves=" + this.moveCount;
+    }
+}
@@ -0,0 +1,40 @@
+package model;
+
+/**
+ * Receives measurements from a {@link ConcentrationModel}.  Install an
+ * implementation with {@link ConcentrationModel#setMetrics(ModelMetrics)};
+ * a model with none installed takes no measurements at all.
+ * {@link MetricsRegistry} keeps them in memory, and other
+ * implementations can forward them to any monitoring system.
+ * <p>
+ * The methods are called on the thread that changed the model, in the
+ * middle of the change, so they must be quick and thread-safe.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public interface ModelMetrics {
+    /**
+     * An operation changed the model.
+     *
+     * @param type  the operation
+     * @param nanos how long the change took, not counting the observers
+     */
+    void recordOperation( ModelEvent.Type type, long nanos );
+
+    /**
+     * A second card was turned up and compared with the first.
+     *
+     * @param matched true if the two made a pair
+     */
+    void recordMatch( boolean matched );
+
+    /**
+     * An observer was told about a change.
+     *
+     * @param observer the observer
+     * @param event    what it was told
+     * @param nanos    how long its update took
+     */
+    void recordUpdate( Observer< ConcentrationModel, Object > observer,
+                       ModelEvent event, long nanos );
+}
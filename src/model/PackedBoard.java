@@ -0,0 +1,418 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Primitive storage for a concentration board.  Instead of one
+ * {@link Card} object per position, the board keeps an array of card
+ * numbers and packs the face-up and can-flip flags into bitsets of
+ * {@code long} words.  The selections in progress are kept in a small
+ * array of board indices, one slot per card of a matching group.
+ *
+ * @author Adrian Burgos awb8593
+ */
+final class PackedBoard {
+    /**
+     * The number of bits in a bitset word.
+     */
+    private static final int WORD_BITS = 64;
+
+    /**
+     * The shift that turns a board index into a word index.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * The number on the card at each position of the board.
+     */
+    private int[] numbers;
+
+    /**
+     * One bit per position; set when the card is face-up.
+     */
+    private final long[] faceUp;
+
+    /**
+     * One bit per position; set when the card may be flipped.
+     */
+    private final long[] canFlip;
+
+    /**
+     * The number of cards in a matching group: 2 for pairs.
+     */
+    private final int groupSize;
+
+    /**
+     * The board indices of the selections in progress, oldest first.
+     */
+    private final int[] pending;
+
+    /**
+     * The number of valid entries in pending.
+     */
+    private int pendingSize;
+
+    /**
+     * Create a board of face-down, flippable cards laid out in groups
+     * (0, 0, 1, 1, ... for pairs).  The board is not shuffled.
+     *
+     * @param numCards  the number of positions on the board
+     * @param groupSize the number of cards in a matching group
+     */
+    PackedBoard( int numCards, int groupSize ) {
+        this.numbers = new int[ numCards ];
+        this.groupSize = groupSize;
+        layOut( this.numbers, groupSize );
+        int words = ( numCards + WORD_BITS - 1 ) >>> WORD_SHIFT;
+        this.faceUp = new long[ words ];
+        this.canFlip = new long[ words ];
+        this.pending = new int[ groupSize ];
+        faceDownAll();
+    }
+
+    /**
+     * @return the number of cards in a matching group
+     */
+    int groupSize() {
+        return this.groupSize;
+    }
+
+    /**
+     * @return the number of positions on the board
+     */
+    int size() {
+        return this.numbers.length;
+    }
+
+    /**
+     * @param i a board index
+     * @return the number on the card at i, whether or not it is face-up
+     */
+    int number( int i ) {
+        return this.numbers[ i ];
+    }
+
+    /**
+     * @param i a board index
+     * @return true if the card at i is face-up
+     */
+    boolean isFaceUp( int i ) {
+        return ( this.faceUp[ i >>> WORD_SHIFT ] & ( 1L << i ) ) != 0;
+    }
+
+    /**
+     * @param i a board index
+     * @return true if the card at i may be flipped
+     */
+    boolean canFlip( int i ) {
+        return ( this.canFlip[ i >>> WORD_SHIFT ] & ( 1L << i ) ) != 0;
+    }
+
+    /**
+     * Toggle the face of the card at i if it allows flipping.
+     *
+     * @param i a board index
+     */
+    void toggleFace( int i ) {
+        if ( canFlip( i ) ) {
+            this.faceUp[ i >>> WORD_SHIFT ] ^= 1L << i;
+        }
+    }
+
+    /**
+     * Set the can-flip flag of the card at i, then toggle its face if
+     * flipping is allowed.
+     *
+     * @param i       a board index
+     * @param canFlip a true value allows the card to be flipped
+     */
+    void toggleFace( int i, boolean canFlip ) {
+        if ( canFlip ) {
+            this.canFlip[ i >>> WORD_SHIFT ] |= 1L << i;
+        }
+        else {
+            this.canFlip[ i >>> WORD_SHIFT ] &= ~( 1L << i );
+        }
+        toggleFace( i );
+    }
+
+    /**
+     * Set both flags of the card at i.
+     *
+     * @param i       a board index
+     * @param faceUp  true if the card is face-up
+     * @param canFlip true if the card may be flipped
+     */
+    void setCard( int i, boolean faceUp, boolean canFlip ) {
+        long bit = 1L << i;
+        int word = i >>> WORD_SHIFT;
+        this.faceUp[ word ] = faceUp ? this.faceUp[ word ] | bit
+                : this.faceUp[ word ] & ~bit;
+        this.canFlip[ word ] = canFlip ? this.canFlip[ word ] | bit
+                : this.canFlip[ word ] & ~bit;
+    }
+
+    /**
+     * @return the number of face-up cards
+     */
+    int faceUpCount() {
+        int count = 0;
+        for ( long word : this.faceUp ) {
+            count += Long.bitCount( word );
+        }
+        return count;
+    }
+
+    /**
+     * Turn every card face-down and allow it to be flipped.
+     */
+    void faceDownAll() {
+        Arrays.fill( this.faceUp, 0L );
+        Arrays.fill( this.canFlip, -1L );
+        int tail = this.numbers.length & ( WORD_BITS - 1 );
+        if ( tail != 0 ) {
+            this.canFlip[ this.canFlip.length - 1 ] = ( 1L << tail ) - 1;
+        }
+    }
+
+    /**
+     * Put card numbers in group order (0, 0, 1, 1, ... for pairs).
+     *
+     * @param a         the card numbers
+     * @param groupSize the number of cards in a matching group
+     */
+    private static void layOut( int[] a, int groupSize ) {
+        for ( int i = 0; i < a.length; ++i ) {
+            a[ i ] = i / groupSize;
+        }
+    }
+
+    /**
+     * Lay the cards out in pair order and shuffle them.
+     *
+     * @param rng the source of randomness
+     */
+    void shuffle( RandomGenerator rng ) {
+        deal( this.numbers, this.groupSize, rng );
+    }
+
+    /**
+     * Lay card numbers out in group order and shuffle them (Fisher-Yates).
+     * Starting from the same order every time means that the same
+     * random sequence always deals the same board, wherever it is dealt.
+     *
+     * @param a         the card numbers
+     * @param groupSize the number of cards in a matching group
+     * @param rng       the source of randomness
+     */
+    static void deal( int[] a, int groupSize, RandomGenerator rng ) {
+        layOut( a, groupSize );
+        for ( int i = a.length - 1; i > 0; --i ) {
+            int j = rng.nextInt( i + 1 );
+            int t = a[ i ];
+            a[ i ] = a[ j ];
+            a[ j ] = t;
+        }
+    }
+
+    /**
+     * Put a dealt deck on the board in place of the current numbers.
+     *
+     * @param deck card numbers of the same length as the board
+     * @return the numbers that were on the board
+     */
+    int[] replaceNumbers( int[] deck ) {
+        int[] old = this.numbers;
+        this.numbers = deck;
+        return old;
+    }
+
+    /**
+     * @return a copy of the card number at each position
+     */
+    int[] copyNumbers() {
+        return this.numbers.clone();
+    }
+
+    /**
+     * @return a copy of the face-up bitset
+     */
+    long[] copyFaceUp() {
+        return this.faceUp.clone();
+    }
+
+    /**
+     * @return the most bytes {@link #encode(ByteBuffer)} can write
+     */
+    int maxEncodedBytes() {
+        return Varint.MAX_BYTES * ( 1 + this.pending.length + size() ) +
+               2 * Long.BYTES * this.faceUp.length;
+    }
+
+    /**
+     * Write the pending selections and the card numbers as varints,
+     * followed by the face-up and can-flip bitsets.
+     *
+     * @param out where the board goes
+     */
+    void encode( ByteBuffer out ) {
+        Varint.put( out, this.pendingSize );
+        for ( int k = 0; k < this.pendingSize; ++k ) {
+            Varint.put( out, this.pending[ k ] );
+        }
+        for ( int number : this.numbers ) {
+            Varint.put( out, number );
+        }
+        putWords( out, this.faceUp );
+        putWords( out, this.canFlip );
+    }
+
+    /**
+     * Read back a board written by {@link #encode(ByteBuffer)} for a board
+     * of the same size.
+     *
+     * @param in where the board comes from
+     * @throws IllegalArgumentException if the encoding does not fit
+     *                                  this board, or its numbers are not
+     *                                  groupSize copies of each group
+     */
+    void decode( ByteBuffer in ) {
+        int size = Varint.get( in );
+        if ( size > this.pending.length ) {
+            throw new IllegalArgumentException(
+                    "too many pending selections: " + size );
+        }
+        for ( int k = 0; k < size; ++k ) {
+            this.pending[ k ] = checkIndex( Varint.get( in ) );
+        }
+        this.pendingSize = size;
+        int groups = this.numbers.length / this.groupSize;
+        int[] copies = new int[ groups ];
+        for ( int i = 0; i < this.numbers.length; ++i ) {
+            int number = Varint.get( in );
+            if ( number < 0 || number >= groups ||
+                 ++copies[ number ] > this.groupSize ) {
+                throw new IllegalArgumentException(
+                        "not a deck of " + groups + " groups of " +
+                        this.groupSize + ": card " + i + " is " + number );
+            }
+            this.numbers[ i ] = number;
+        }
+        getWords( in, this.faceUp );
+        getWords( in, this.canFlip );
+    }
+
+    /**
+     * @param i a board index read from an encoding
+     * @return i
+     * @throws IllegalArgumentException if i is not on the board
+     */
+    private int checkIndex( int i ) {
+        if ( i < 0 || i >= this.numbers.length ) {
+            throw new IllegalArgumentException( "no such card: " + i );
+        }
+        return i;
+    }
+
+    /**
+     * Bulk-copy a bitset into a buffer.
+     *
+     * @param out   where the words go
+     * @param words the bitset
+     */
+    private static void putWords( ByteBuffer out, long[] words ) {
+        out.asLongBuffer().put( words );
+        out.position( out.position() + Long.BYTES * words.length );
+    }
+
+    /**
+     * Bulk-copy a bitset out of a buffer.
+     *
+     * @param in    where the words come from
+     * @param words the bitset
+     */
+    private static void getWords( ByteBuffer in, long[] words ) {
+        in.asLongBuffer().get( words );
+        in.position( in.position() + Long.BYTES * words.length );
+    }
+
+    /**
+     * Make a card object for the position i.
+     *
+     * @param i a board index
+     * @return a new Card holding the state of position i
+     */
+    Card toCard( int i ) {
+        return new Card( this.numbers[ i ], isFaceUp( i ), canFlip( i ) );
+    }
+
+    /**
+     * Push a board index onto the pending selections.
+     *
+     * @param i a board index
+     */
+    void push( int i ) {
+        this.pending[ this.pendingSize++ ] = i;
+    }
+
+    /**
+     * Remove the newest pending selection.
+     *
+     * @return its board index
+     */
+    int pop() {
+        return this.pending[ --this.pendingSize ];
+    }
+
+    /**
+     * @param k a position in the pending selections, 0 being the oldest
+     * @return the board index selected at k
+     */
+    int pendingAt( int k ) {
+        return this.pending[ k ];
+    }
+
+    /**
+     * @return the number of pending selections
+     */
+    int pendingSize() {
+        return this.pendingSize;
+    }
+
+    /**
+     * Replace the pending selections.
+     *
+     * @param size the number of selections, at most the group size
+     * @param from an array holding the selections, oldest first
+     * @param at   where they start in it
+     */
+    void setPending( int size, int[] from, int at ) {
+        System.arraycopy( from, at, this.pending, 0, size );
+        this.pendingSize = size;
+    }
+
+    /**
+     * Tell whether the turn in progress has failed: the card just turned
+     * up does not match the first of the turn.  A turn ends at its first
+     * mismatch, and a matched group does not stay pending, so only the
+     * newest card need be compared and this takes constant time.  For
+     * pairs it is just two cards being up.
+     *
+     * @return true if the next selection turns the cards of the turn back
+     * over
+     */
+    boolean mismatched() {
+        int size = this.pendingSize;
+        return size > 1 && this.numbers[ this.pending[ size - 1 ] ] !=
+                           this.numbers[ this.pending[ 0 ] ];
+    }
+
+    /**
+     * Forget every pending selection.
+     */
+    void clearPending() {
+        this.pendingSize = 0;
+    }
+}
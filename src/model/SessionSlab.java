@@ -0,0 +1,501 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A store for very many games of one board size, kept off the heap.  Each
+ * game is a fixed-size record in a direct buffer: the move count, the
+ * pairs matched, the seed of the deal, the selections in progress, the
+ * card numbers and a bitset of face-up cards.  A game is addressed by an
+ * int handle and played in place with {@link #selectCard(int, int)},
+ * {@link #undo(int)} and {@link #reset(int, long)}, which follow the same
+ * rules as {@link ConcentrationModel}; the same seed deals the same
+ * board in both.  A million idle 4x4 games take about 72MB off the heap
+ * and nothing on it.
+ * <p>
+ * Records are carved out of buffers of about 16MB that are added as the
+ * store grows.  A freed record goes on a free list and is reused by the
+ * next {@link #allocate()}.  Allocating and freeing are thread-safe; the
+ * moves of any one game must be made by one thread at a time.
+ * <p>
+ * The model lets every card be flipped until a reset, so the slab keeps
+ * no can-flip bits.  There is no undo/redo history and there are no
+ * observers; {@link #game(int)} wraps a handle as a {@link SlabGame} for
+ * callers that would rather hold an object.  A move on a freed handle
+ * throws rather than change a record that may since be another game.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class SessionSlab {
+    /**
+     * The size of each buffer records are carved from.
+     */
+    private static final int CHUNK_BYTES = 1 << 24;
+
+    /**
+     * Where the move count is in a record.
+     */
+    private static final int MOVES = 0;
+
+    /**
+     * Where the number of pairs matched is in a record.
+     */
+    private static final int MATCHED = 4;
+
+    /**
+     * Where the seed of the deal is in a record.
+     */
+    private static final int SEED = 8;
+
+    /**
+     * Where the number of selections in progress is in a record.
+     */
+    private static final int PENDING_SIZE = 16;
+
+    /**
+     * Where the selections in progress are in a record, oldest first.
+     */
+    private static final int PENDING = 20;
+
+    /**
+     * Where the link is in a record: {@link #LIVE} for a game in use,
+     * otherwise the handle of the next free record, or -1.
+     */
+    private static final int LINK = 28;
+
+    /**
+     * Where the card numbers start in a record.
+     */
+    private static final int NUMBERS = 32;
+
+    /**
+     * The link of a record in use.
+     */
+    private static final int LIVE = -2;
+
+    /**
+     * The number of columns on each board.
+     */
+    private final int width;
+
+    /**
+     * The number of rows on each board.
+     */
+    private final int height;
+
+    /**
+     * The number of cards on each board.
+     */
+    private final int numCards;
+
+    /**
+     * true if card numbers are stored as chars rather than ints.
+     */
+    private final boolean narrow;
+
+    /**
+     * Where the face-up bitset starts in a record.
+     */
+    private final int faceUpAt;
+
+    /**
+     * The size of a record in bytes.
+     */
+    private final int recordBytes;
+
+    /**
+     * The number of records in each buffer.
+     */
+    private final int perChunk;
+
+    /**
+     * The buffers; replaced, never changed, when one is added.
+     */
+    private volatile ByteBuffer[] chunks = new ByteBuffer[ 0 ];
+
+    /**
+     * The number of records ever carved out.
+     */
+    private int capacity;
+
+    /**
+     * The handle of the first free record, or -1.
+     */
+    private int freeList = -1;
+
+    /**
+     * The number of games in use.
+     */
+    private int live;
+
+    /**
+     * Create an empty store.
+     *
+     * @param width  the number of columns on each board
+     * @param height the number of rows on each board
+     * @throws IllegalArgumentException if the board does not hold an even
+     *                                  number of cards
+     */
+    public SessionSlab( int width, int height ) {
+        long cards = ( long ) width * height;
+        if ( width <= 0 || height <= 0 || cards % 2 != 0 ||
+             cards > Integer.MAX_VALUE / Integer.BYTES - NUMBERS ) {
+            throw new IllegalArgumentException(
+                    "Bad board size: " + width + "x" + height );
+        }
+        this.width = width;
+        this.height = height;
+        this.numCards = ( int ) cards;
+        this.narrow = this.numCards / 2 <= Character.MAX_VALUE + 1;
+        int numberBytes = this.numCards * ( this.narrow ? Character.BYTES
+                : Integer.BYTES );
+        this.faceUpAt = NUMBERS + ( numberBytes + 7 & ~7 );
+        this.recordBytes = this.faceUpAt +
+                           Long.BYTES * ( ( this.numCards + 63 ) >>> 6 );
+        this.perChunk = Math.max( 1, CHUNK_BYTES / this.recordBytes );
+    }
+
+    /**
+     * @return the number of columns on each board
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return the number of rows on each board
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return the number of cards on each board
+     */
+    public int getNumCards() {
+        return this.numCards;
+    }
+
+    /**
+     * @return the size of one game's record in bytes
+     */
+    public int recordBytes() {
+        return this.recordBytes;
+    }
+
+    /**
+     * @return the number of games in use
+     */
+    public synchronized int size() {
+        return this.live;
+    }
+
+    /**
+     * @return the bytes of the buffers allocated off the heap
+     */
+    public synchronized long offHeapBytes() {
+        long bytes = 0;
+        for ( ByteBuffer chunk : this.chunks ) {
+            bytes += chunk.capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * Start a game with a shuffle from a fresh seed.
+     *
+     * @return its handle
+     */
+    public int allocate() {
+        return allocate( ConcentrationModel.nextSeed() );
+    }
+
+    /**
+     * Start a game.  A freed record is reused if there is one.
+     *
+     * @param seed the seed for the shuffle
+     * @return its handle
+     */
+    public int allocate( long seed ) {
+        int handle;
+        synchronized ( this ) {
+            handle = this.freeList;
+            if ( handle >= 0 ) {
+                this.freeList = chunk( handle ).getInt( at( handle ) + LINK );
+            }
+            else {
+                if ( this.capacity == this.chunks.length * this.perChunk ) {
+                    grow();
+                }
+                handle = this.capacity++;
+            }
+            chunk( handle ).putInt( at( handle ) + LINK, LIVE );
+            ++this.live;
+        }
+        reset( handle, seed );
+        return handle;
+    }
+
+    /**
+     * Add a buffer of records.
+     */
+    private void grow() {
+        ByteBuffer[] more = Arrays.copyOf( this.chunks,
+                                           this.chunks.length + 1 );
+        more[ more.length - 1 ] = ByteBuffer
+                .allocateDirect( this.perChunk * this.recordBytes )
+                .order( ByteOrder.nativeOrder() );
+        this.chunks = more;
+    }
+
+    /**
+     * End a game and put its record on the free list.
+     *
+     * @param handle the game
+     * @throws IllegalArgumentException if the handle is not a game in use
+     */
+    public synchronized void free( int handle ) {
+        check( handle );
+        chunk( handle ).putInt( at( handle ) + LINK, this.freeList );
+        this.freeList = handle;
+        --this.live;
+    }
+
+    /**
+     * @param handle a game in use
+     * @return the game as an object
+     * @throws IllegalArgumentException if the handle is not a game in use
+     */
+    public SlabGame game( int handle ) {
+        check( handle );
+        return new SlabGame( this, handle );
+    }
+
+    /**
+     * @param handle a handle
+     * @throws IllegalArgumentException if it is not a game in use
+     */
+    private void check( int handle ) {
+        if ( handle < 0 || handle >= this.chunks.length * this.perChunk ||
+             chunk( handle ).getInt( at( handle ) + LINK ) != LIVE ) {
+            throw new IllegalArgumentException( "No game " + handle );
+        }
+    }
+
+    /**
+     * @param handle a game
+     * @return the buffer its record is in
+     */
+    private ByteBuffer chunk( int handle ) {
+        return this.chunks[ handle / this.perChunk ];
+    }
+
+    /**
+     * @param handle a game
+     * @return where its record starts in its buffer
+     */
+    private int at( int handle ) {
+        return handle % this.perChunk * this.recordBytes;
+    }
+
+    /**
+     * Deal a game again.  The same seed deals the same board as
+     * {@link ConcentrationModel#reset(long)}.
+     *
+     * @param handle the game
+     * @param seed   the seed for the shuffle
+     * @throws IllegalArgumentException if the handle is not a game in use
+     */
+    public void reset( int handle, long seed ) {
+        check( handle );
+        ByteBuffer b = chunk( handle );
+        int r = at( handle );
+        for ( int i = 0; i < this.numCards; ++i ) {
+            putNumber( b, r, i, i / 2 );
+        }
+        SplittableRandom rng = new SplittableRandom( seed );
+        for ( int i = this.numCards - 1; i > 0; --i ) {
+            int j = rng.nextInt( i + 1 );
+            int t = number( b, r, i );
+            putNumber( b, r, i, number( b, r, j ) );
+            putNumber( b, r, j, t );
+        }
+        for ( int w = r + this.faceUpAt; w < r + this.recordBytes;
+              w += Long.BYTES ) {
+            b.putLong( w, 0 );
+        }
+        b.putInt( r + MOVES, 0 );
+        b.putInt( r + MATCHED, 0 );
+        b.putLong( r + SEED, seed );
+        b.putInt( r + PENDING_SIZE, 0 );
+    }
+
+    /**
+     * Select a card to turn face up.  If two cards are already selected,
+     * they are turned back over first.
+     *
+     * @param handle the game
+     * @param n      the index of the card
+     * @throws IllegalArgumentException if the handle is not a game in use
+     */
+    public void selectCard( int handle, int n ) {
+        check( handle );
+        if ( n < 0 || n >= this.numCards ) {
+            return;
+        }
+        ByteBuffer b = chunk( handle );
+        int r = at( handle );
+        int size = b.getInt( r + PENDING_SIZE );
+        if ( size == 2 ) {
+            undo( b, r );
+            undo( b, r );
+            size = 0;
+        }
+        if ( !isFaceUp( b, r, n ) ) {
+            flip( b, r, n );
+            b.putInt( r + PENDING + Integer.BYTES * size++, n );
+            b.putInt( r + PENDING_SIZE, size );
+            b.putInt( r + MOVES, b.getInt( r + MOVES ) + 1 );
+        }
+        if ( size == 2 && number( b, r, b.getInt( r + PENDING ) ) ==
+                          number( b, r, b.getInt( r + PENDING + 4 ) ) ) {
+            b.putInt( r + PENDING_SIZE, 0 );
+            b.putInt( r + MATCHED, b.getInt( r + MATCHED ) + 1 );
+        }
+    }
+
+    /**
+     * Undo selecting a card of the pair in progress.
+     *
+     * @param handle the game
+     * @throws IllegalArgumentException if the handle is not a game in use
+     */
+    public void undo( int handle ) {
+        check( handle );
+        undo( chunk( handle ), at( handle ) );
+    }
+
+    /**
+     * Turn the newest selection back over, if there is one.
+     *
+     * @param b the buffer of the game
+     * @param r where its record starts
+     */
+    private void undo( ByteBuffer b, int r ) {
+        int size = b.getInt( r + PENDING_SIZE );
+        if ( size > 0 ) {
+            b.putInt( r + PENDING_SIZE, --size );
+            flip( b, r, b.getInt( r + PENDING + Integer.BYTES * size ) );
+        }
+    }
+
+    /**
+     * @param handle a game
+     * @return the number of moves made
+     */
+    public int getMoveCount( int handle ) {
+        return chunk( handle ).getInt( at( handle ) + MOVES );
+    }
+
+    /**
+     * @param handle a game
+     * @return the number of cards of the pair in progress that are face up
+     */
+    public int howManyCardsUp( int handle ) {
+        return chunk( handle ).getInt( at( handle ) + PENDING_SIZE );
+    }
+
+    /**
+     * @param handle a game
+     * @return the number of pairs matched
+     */
+    public int getMatchedPairs( int handle ) {
+        return chunk( handle ).getInt( at( handle ) + MATCHED );
+    }
+
+    /**
+     * @param handle a game
+     * @return true if every pair has been matched
+     */
+    public boolean isWon( int handle ) {
+        return getMatchedPairs( handle ) == this.numCards / 2;
+    }
+
+    /**
+     * @param handle a game
+     * @return the seed it was dealt from
+     */
+    public long getSeed( int handle ) {
+        return chunk( handle ).getLong( at( handle ) + SEED );
+    }
+
+    /**
+     * @param handle a game
+     * @param n      the index of a card
+     * @return true if the card is face up
+     */
+    public boolean isFaceUp( int handle, int n ) {
+        return isFaceUp( chunk( handle ), at( handle ), n );
+    }
+
+    /**
+     * @param handle a game
+     * @param n      the index of a card
+     * @return the number on the card, whether or not it is face up
+     */
+    public int getNumber( int handle, int n ) {
+        return number( chunk( handle ), at( handle ), n );
+    }
+
+    /**
+     * @param b the buffer of a game
+     * @param r where its record starts
+     * @param n the index of a card
+     * @return true if the card is face up
+     */
+    private boolean isFaceUp( ByteBuffer b, int r, int n ) {
+        return ( b.getLong( r + this.faceUpAt + ( n >>> 6 ) * Long.BYTES ) &
+                 1L << n ) != 0;
+    }
+
+    /**
+     * Turn a card over.
+     *
+     * @param b the buffer of a game
+     * @param r where its record starts
+     * @param n the index of the card
+     */
+    private void flip( ByteBuffer b, int r, int n ) {
+        int w = r + this.faceUpAt + ( n >>> 6 ) * Long.BYTES;
+        b.putLong( w, b.getLong( w ) ^ 1L << n );
+    }
+
+    /**
+     * @param b the buffer of a game
+     * @param r where its record starts
+     * @param n the index of a card
+     * @return the number on the card
+     */
+    private int number( ByteBuffer b, int r, int n ) {
+        return this.narrow ? b.getChar( r + NUMBERS + Character.BYTES * n )
+                : b.getInt( r + NUMBERS + Integer.BYTES * n );
+    }
+
+    /**
+     * @param b      the buffer of a game
+     * @param r      where its record starts
+     * @param n      the index of a card
+     * @param number the number to put on it
+     */
+    private void putNumber( ByteBuffer b, int r, int n, int number ) {
+        if ( this.narrow ) {
+            b.putChar( r + NUMBERS + Character.BYTES * n, ( char ) number );
+        }
+        else {
+            b.putInt( r + NUMBERS + Integer.BYTES * n, number );
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package model;
+
+/**
+ * A game kept in a {@link SessionSlab}, seen as one object rather than a
+ * handle.  The facade holds only the slab and the handle; every call
+ * reads or changes the record in place, and fails once the game has been
+ * freed.  A slab game has no observers, so there is no cheat command: a
+ * caller that wants the cheat board reads {@link #getCheatView()}.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class SlabGame {
+    /**
+     * The store the game is in.
+     */
+    private final SessionSlab slab;
+
+    /**
+     * The handle of the game.
+     */
+    private final int handle;
+
+    /**
+     * The view of the board as the player sees it.
+     */
+    private final BoardView boardView = new View( false );
+
+    /**
+     * The view of the board with every card showing.
+     */
+    private final BoardView cheatView = new View( true );
+
+    /**
+     * @param slab   the store the game is in
+     * @param handle the handle of the game
+     */
+    SlabGame( SessionSlab slab, int handle ) {
+        this.slab = slab;
+        this.handle = handle;
+    }
+
+    /**
+     * @return the handle of the game
+     */
+    public int getHandle() {
+        return this.handle;
+    }
+
+    /**
+     * Select a card to turn face up.  If two cards are already selected,
+     * they are turned back over first.
+     *
+     * @param n the index of the card
+     * @throws IllegalArgumentException if the game has been freed
+     */
+    public void selectCard( int n ) {
+        this.slab.selectCard( this.handle, n );
+    }
+
+    /**
+     * Undo selecting a card of the pair in progress.
+     *
+     * @throws IllegalArgumentException if the game has been freed
+     */
+    public void undo() {
+        this.slab.undo( this.handle );
+    }
+
+    /**
+     * Deal a new game with a shuffle from a fresh seed.
+     *
+     * @throws IllegalArgumentException if the game has been freed
+     */
+    public void reset() {
+        this.slab.reset( this.handle, ConcentrationModel.nextSeed() );
+    }
+
+    /**
+     * Deal a new game.  The same seed deals the same board as
+     * {@link ConcentrationModel#reset(long)}.
+     *
+     * @param seed the seed for the shuffle
+     * @throws IllegalArgumentException if the game has been freed
+     */
+    public void reset( long seed ) {
+        this.slab.reset( this.handle, seed );
+    }
+
+    /**
+     * @return the number of columns on the board
+     */
+    public int getWidth() {
+        return this.slab.getWidth();
+    }
+
+    /**
+     * @return the number of rows on the board
+     */
+    public int getHeight() {
+        return this.slab.getHeight();
+    }
+
+    /**
+     * @return the number of cards on the board
+     */
+    public int getNumCards() {
+        return this.slab.getNumCards();
+    }
+
+    /**
+     * @return the number of moves made
+     */
+    public int getMoveCount() {
+        return this.slab.getMoveCount( this.handle );
+    }
+
+    /**
+     * @return the number of cards of the pair in progress that are face up
+     */
+    public int howManyCardsUp() {
+        return this.slab.howManyCardsUp( this.handle );
+    }
+
+    /**
+     * @return true if every pair has been matched
+     */
+    public boolean isWon() {
+        return this.slab.isWon( this.handle );
+    }
+
+    /**
+     * @return a live view of the board as the player sees it
+     */
+    public BoardView getBoardView() {
+        return this.boardView;
+    }
+
+    /**
+     * @return a live view of the board with every card face up
+     */
+    public BoardView getCheatView() {
+        return this.cheatView;
+    }
+
+    /**
+     * A live view of the record.
+     */
+    private class View implements BoardView {
+        /**
+         * true if every card shows its face in this view.
+         */
+        private final boolean cheat;
+
+        /**
+         * @param cheat true if every card shows its face in this view
+         */
+        View( boolean cheat ) {
+            this.cheat = cheat;
+        }
+
+        @Override
+        public int getWidth() {
+            return slab.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return slab.getHeight();
+        }
+
+        @Override
+        public int size() {
+            return slab.getNumCards();
+        }
+
+        @Override
+        public boolean isFaceUp( int n ) {
+            return this.cheat || slab.isFaceUp( handle, n );
+        }
+
+        @Override
+        public int getNumber( int n ) {
+            return isFaceUp( n ) ? slab.getNumber( handle, n ) : -1;
+        }
+    }
+}
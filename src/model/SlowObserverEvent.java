@@ -0,0 +1,39 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event for an observer whose update took longer than
+ * the threshold of its {@link MetricsRegistry}.
+ *
+ * @author Adrian Burgos awb8593
+ */
+@Name( "concentration.SlowObserver" )
+@Label( "Slow Observer" )
+@Category( "Concentration" )
+@Description( "An observer took too long to handle a model change" )
+final class SlowObserverEvent extends Event {
+    /**
+     * The class of the observer.
+     */
+    @Label( "Observer" )
+    String observer;
+
+    /**
+     * The operation it was told about.
+     */
+    @Label( "Operation" )
+    String operation;
+
+    /**
+     * How long its update took.
+     */
+    @Label( "Update Time" )
+    @Timespan( Timespan.NANOSECONDS )
+    long updateTime;
+}
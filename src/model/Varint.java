@@ -0,0 +1,91 @@
+package model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unsigned variable-length integers: seven bits per byte, low bits first,
+ * with the top bit of each byte set when more bytes follow.  Small
+ * numbers take a single byte.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class Varint {
+    /**
+     * The most bytes an int can take.
+     */
+    public static final int MAX_BYTES = 5;
+
+    /**
+     * The most bytes a long can take.
+     */
+    public static final int MAX_LONG_BYTES = 10;
+
+    private Varint() {
+    }
+
+    /**
+     * Write a non-negative int.
+     *
+     * @param out   where it goes
+     * @param value the value
+     */
+    public static void put( ByteBuffer out, int value ) {
+        while ( ( value & ~0x7F ) != 0 ) {
+            out.put( ( byte ) ( ( value & 0x7F ) | 0x80 ) );
+            value >>>= 7;
+        }
+        out.put( ( byte ) value );
+    }
+
+    /**
+     * Write a non-negative long.
+     *
+     * @param out   where it goes
+     * @param value the value
+     */
+    public static void putLong( ByteBuffer out, long value ) {
+        while ( ( value & ~0x7FL ) != 0 ) {
+            out.put( ( byte ) ( ( value & 0x7F ) | 0x80 ) );
+            value >>>= 7;
+        }
+        out.put( ( byte ) value );
+    }
+
+    /**
+     * Read a non-negative int.
+     *
+     * @param in where it comes from
+     * @return the value
+     * @throws IllegalArgumentException if the encoding is too long
+     */
+    public static int get( ByteBuffer in ) {
+        int value = 0;
+        for ( int shift = 0; shift < 7 * MAX_BYTES; shift += 7 ) {
+            byte b = in.get();
+            value |= ( b & 0x7F ) << shift;
+            if ( b >= 0 ) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException( "malformed varint" );
+    }
+
+    /**
+     * Read a non-negative long.
+     *
+     * @param in where it comes from
+     * @return the value
+     * @throws IllegalArgumentException if the encoding is too long
+     */
+    public static long getLong( ByteBuffer in ) {
+        long value = 0;
+        for ( int shift = 0; shift < 7 * MAX_LONG_BYTES; shift += 7 ) {
+            byte b = in.get();
+            value |= ( long ) ( b & 0x7F ) << shift;
+            if ( b >= 0 ) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException( "malformed varint" );
+    }
+}
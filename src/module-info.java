@@ -1,4 +1,5 @@
 module Concentration {
     requires transitive javafx.controls;
+    requires jdk.jfr;
     exports gui;
 }
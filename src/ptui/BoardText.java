@@ -0,0 +1,176 @@
+package ptui;
+
+import model.BoardView;
+import model.Hints;
+import model.ModelEvent;
+
+/**
+ * The text rendering of the game shared by the PTUI and the game server.
+ *
+ * @author Arthur Nunes-Harwitt
+ * @author Sean Strout
+ */
+public final class BoardText {
+    /**
+     * The prompt printed before each command is read.
+     */
+    public static final String PROMPT = "game command: ";
+
+    /**
+     * The largest board whose index grid is printed by the help command.
+     */
+    private static final int MAX_HELP_CARDS = 256;
+
+    /**
+     * The names of the cards of a turn, for the directions.
+     */
+    private static final String[] ORDINALS = { "first", "second", "third",
+            "fourth", "fifth", "sixth", "seventh", "eighth" };
+
+    private BoardText() {
+    }
+
+    /**
+     * Append the cards as a grid, the move count, and brief directions.
+     *
+     * @param out        where the text goes
+     * @param n          An integer that represents the number of moves.
+     * @param up         An integer that represents the number of cards
+     *                   selected.
+     * @param mismatched true if the cards selected do not match
+     * @param faces      A view of the board.
+     */
+    public static void appendBoard( StringBuilder out, int n, int up,
+                                    boolean mismatched, BoardView faces ) {
+        appendStatus( out, n, up, mismatched );
+        int width = faces.getWidth();
+        int pos = 1;
+        for ( int i = 0; i < faces.size(); ++i ) {
+            appendCard( out, faces, i );
+            if ( pos % width == 0 ) {
+                out.append( '\n' );
+            }
+            else {
+                out.append( " | " );
+            }
+            ++pos;
+        }
+    }
+
+    /**
+     * Append the move count and brief directions, then only the cards an
+     * event turned over, one per line.
+     *
+     * @param out        where the text goes
+     * @param n          An integer that represents the number of moves.
+     * @param up         An integer that represents the number of cards
+     *                   selected.
+     * @param mismatched true if the cards selected do not match
+     * @param faces      A view of the board.
+     * @param event      the change that was made
+     */
+    public static void appendChanges( StringBuilder out, int n, int up,
+                                      boolean mismatched, BoardView faces,
+                                      ModelEvent event ) {
+        appendStatus( out, n, up, mismatched );
+        for ( int k = 0; k < event.flippedCount(); ++k ) {
+            int i = event.flipped( k );
+            out.append( "card " ).append( i ).append( ": " );
+            appendCard( out, faces, i );
+            out.append( '\n' );
+        }
+    }
+
+    /**
+     * Append the move count and brief directions: which card of the turn
+     * to select next, or what to do about a mismatch.
+     *
+     * @param out        where the text goes
+     * @param n          An integer that represents the number of moves.
+     * @param up         An integer that represents the number of cards
+     *                   selected.
+     * @param mismatched true if the cards selected do not match
+     */
+    private static void appendStatus( StringBuilder out, int n, int up,
+                                      boolean mismatched ) {
+        out.append( "Move count: " ).append( n ).append( '\n' );
+        if ( mismatched ) {
+            out.append( "No Match: Undo or select a card.\n" );
+        }
+        else if ( up < ORDINALS.length ) {
+            out.append( "Select the " ).append( ORDINALS[ up ] )
+               .append( " card.\n" );
+        }
+        else {
+            out.append( "Select card " ).append( up + 1 ).append( ".\n" );
+        }
+    }
+
+    /**
+     * Append one card: its number if it is face up, stars if not.
+     *
+     * @param out   where the text goes
+     * @param faces A view of the board.
+     * @param i     the index of the card
+     */
+    private static void appendCard( StringBuilder out, BoardView faces,
+                                    int i ) {
+        if ( faces.isFaceUp( i ) ) {
+            out.append( '-' ).append( faces.getNumber( i ) ).append( '-' );
+        }
+        else {
+            out.append( "***" );
+        }
+    }
+
+    /**
+     * Append help for the game.
+     *
+     * @param out      where the text goes
+     * @param width    the number of columns on the board
+     * @param numCards the number of cards on the board
+     */
+    public static void appendHelp( StringBuilder out, int width,
+                                   int numCards ) {
+        if ( numCards <= MAX_HELP_CARDS ) {
+            int digits = String.valueOf( numCards - 1 ).length();
+            String format = "%0" + Math.max( 2, digits ) + "d";
+            for ( int n = 0; n < numCards; ++n ) {
+                out.append( n % width == 0 ? " " : " | " )
+                   .append( String.format( format, n ) );
+                if ( n % width == width - 1 ) {
+                    out.append( '\n' );
+                }
+            }
+        }
+        else {
+            out.append( "cards are numbered 0 to " ).append( numCards - 1 )
+               .append( ", " ).append( width ).append( " per row\n" );
+        }
+        out.append( "s(elect) n  -- select the card n to flip\n" );
+        out.append( "u(ndo)      -- undo last flip\n" );
+        out.append( "q(uit)      -- quit the game\n" );
+        out.append( "r(eset) [n] -- start a new game (dealt from seed n)\n" );
+        out.append( "c(heat)     -- see where the cards are\n" );
+        out.append( "h(int)      -- suggest a card to select\n" );
+    }
+
+    /**
+     * Append a hint: the card a player with perfect memory would select
+     * next.
+     *
+     * @param out   where the text goes
+     * @param hints what the player has seen
+     */
+    public static void appendHint( StringBuilder out, Hints hints ) {
+        int n = hints.hint();
+        if ( n < 0 ) {
+            out.append( "hint: every card is matched\n" );
+        }
+        else {
+            out.append( "hint: s " ).append( n )
+               .append( hints.isSeen( n ) ? " (seen before)\n"
+                               : " (never seen)\n" );
+        }
+    }
+}
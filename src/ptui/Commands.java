@@ -0,0 +1,77 @@
+package ptui;
+
+import model.ConcentrationModel;
+
+/**
+ * The command language of the text game: s(elect) n, u(ndo), r(eset)
+ * [seed], c(heat), h(int) and q(uit).  Only the first letter of a command matters.
+ *
+ * @author Arthur Nunes-Harwitt
+ * @author Sean Strout
+ */
+public final class Commands {
+    /**
+     * What the caller should do after a command line has been run.
+     */
+    public enum Result {
+        /** The command was applied to the model. */
+        DONE,
+        /** The player wants to stop. */
+        QUIT,
+        /** The line was not a command; show the help. */
+        HELP,
+        /** The player asked for a hint; show one. */
+        HINT
+    }
+
+    private Commands() {
+    }
+
+    /**
+     * Run one command line against a model.
+     *
+     * @param model the game to play
+     * @param line  the command line
+     * @return what to do next
+     */
+    public static Result execute( ConcentrationModel model, String line ) {
+        String[] words = line.trim().split( "\\s+" );
+        if ( words[ 0 ].startsWith( "q" ) ) {
+            return Result.QUIT;
+        }
+        else if ( words[ 0 ].startsWith( "r" ) ) {
+            if ( words.length == 1 ) {
+                model.reset();
+            }
+            else {
+                try {
+                    model.reset( Long.parseLong( words[ 1 ] ) );
+                }
+                catch ( NumberFormatException e ) {
+                    return Result.HELP;
+                }
+            }
+        }
+        else if ( words[ 0 ].startsWith( "c" ) ) {
+            model.cheat();
+        }
+        else if ( words[ 0 ].startsWith( "h" ) ) {
+            return Result.HINT;
+        }
+        else if ( words[ 0 ].startsWith( "u" ) ) {
+            model.undo();
+        }
+        else if ( words[ 0 ].startsWith( "s" ) && words.length > 1 ) {
+            try {
+                model.selectCard( Integer.parseInt( words[ 1 ] ) );
+            }
+            catch ( NumberFormatException e ) {
+                return Result.HELP;
+            }
+        }
+        else {
+            return Result.HELP;
+        }
+        return Result.DONE;
+    }
+}
@@ -1,8 +1,16 @@
 package ptui;
 
-import java.util.Scanner;
-import java.util.ArrayList;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 
+import gui.FirstFrame;
 import model.*;
 
 /**
@@ -15,16 +23,80 @@ import model.*;
 public class ConcentrationPTUI
         implements Observer< ConcentrationModel, Object > {
 
+    /**
+     * Which frames the view prints.
+     */
+    public enum Frames {
+        /** Every frame, in full. */
+        ALL,
+        /** The first frame in full, then only the cards that change. */
+        DIFF,
+        /** Only the frame at the end of a batch. */
+        LAST
+    }
+
+    /**
+     * The size of the input and output buffers.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
     /**
      * The model for the view and controller.
      */
     private ConcentrationModel model;
 
+    /**
+     * Which frames are printed.
+     */
+    private final Frames frames;
+
+    /**
+     * true to flush the output after every frame, as a player at a
+     * terminal needs.
+     */
+    private final boolean interactive;
+
+    /**
+     * Where the text goes.
+     */
+    private final Writer out;
+
+    /**
+     * The frame being built; reused for every frame.
+     */
+    private final StringBuilder frame = new StringBuilder();
+
     /**
      * Construct the PTUI
      */
     public ConcentrationPTUI() {
-        this.model = new ConcentrationModel();
+        this( ConcentrationModel.BOARD_SIZE, ConcentrationModel.BOARD_SIZE );
+    }
+
+    /**
+     * Construct the PTUI for a board of any shape.
+     *
+     * @param width  the number of columns on the board
+     * @param height the number of rows on the board
+     */
+    public ConcentrationPTUI( int width, int height ) {
+        this( new ConcentrationModel( width, height ), Frames.ALL, true );
+    }
+
+    /**
+     * Construct the PTUI for a game.
+     *
+     * @param model       the game
+     * @param frames      which frames to print
+     * @param interactive true to flush after every frame and prompt
+     */
+    public ConcentrationPTUI( ConcentrationModel model, Frames frames,
+                              boolean interactive ) {
+        this.model = model;
+        this.frames = frames;
+        this.interactive = interactive;
+        this.out = new BufferedWriter( new OutputStreamWriter( System.out ),
+                                       BUFFER_SIZE );
         initializeView();
     }
 
@@ -34,33 +106,60 @@ public class ConcentrationPTUI
      * Read a command and execute loop.
      */
     private void run() {
-        Scanner in = new Scanner( System.in );
-        for ( ; ; ) {
-            System.out.print( "game command: " );
-            String line = in.nextLine();
-            String[] words = line.split( "\\s+" );
-            if ( words.length > 0 ) {
-                if ( words[ 0 ].startsWith( "q" ) ) {
+        BufferedReader in = new BufferedReader(
+                new InputStreamReader( System.in ), BUFFER_SIZE );
+        try {
+            for ( ; ; ) {
+                write( BoardText.PROMPT );
+                String line = in.readLine();
+                if ( line == null || execute( line ) ) {
                     break;
                 }
-                else if ( words[ 0 ].startsWith( "r" ) ) {
-                    this.model.reset();
-                }
-                else if ( words[ 0 ].startsWith( "c" ) ) {
-                    this.model.cheat();
-                }
-                else if ( words[ 0 ].startsWith( "u" ) ) {
-                    this.model.undo();
-                }
-                else if ( words[ 0 ].startsWith( "s" ) ) {
-                    int n = Integer.parseInt( words[ 1 ] );
-                    this.model.selectCard( n );
-                }
-                else {
-                    displayHelp();
-                }
             }
         }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Run every command from a script without prompting, then print the
+     * final frame if frames are being suppressed.  Output is flushed only
+     * when its buffer fills and at the end.
+     *
+     * @param script the commands, one per line
+     * @throws IOException if the script cannot be read or the output
+     *                     written
+     */
+    public void runBatch( Reader script ) throws IOException {
+        BufferedReader in = new BufferedReader( script, BUFFER_SIZE );
+        String line;
+        while ( ( line = in.readLine() ) != null && !execute( line ) ) {
+            // each command prints its own frame, if any
+        }
+        if ( this.frames == Frames.LAST ) {
+            this.frame.setLength( 0 );
+            render( null );
+            this.out.append( this.frame );
+        }
+        this.out.flush();
+    }
+
+    /**
+     * Run one command line.
+     *
+     * @param line the command line
+     * @return true if the player wants to stop
+     */
+    private boolean execute( String line ) {
+        Commands.Result result = Commands.execute( this.model, line );
+        if ( result == Commands.Result.HELP ) {
+            displayHelp();
+        }
+        else if ( result == Commands.Result.HINT ) {
+            displayHint();
+        }
+        return result == Commands.Result.QUIT;
     }
 
     // VIEW
@@ -74,86 +173,153 @@ public class ConcentrationPTUI
     }
 
     /**
-     * Print on standard out the cards as a grid , the move count, and
-     * brief directions.
-     *
-     * @param n     An integer that represents the number of moves.
-     * @param up    An integer that represents the number of cards
-     *              selected.
-     * @param faces An ArrayList of CardFace that represents the board.
-     * @param cheat true if user selected to cheat
-     */
-    private void displayBoard( int n, int up, ArrayList< Card > faces,
-                               boolean cheat ) {
-        System.out.println( "Move count: " + n );
-        switch ( up ) {
-            case 0:
-                System.out.println( "Select the first card." );
-                break;
-            case 1:
-                System.out.println( "Select the second card." );
-                break;
-            case 2:
-                System.out.println( "No Match: Undo or select a card." );
-                break;
-        }
-        int pos = 1;
-        for ( Card f : faces ) {
-            if ( f.isFaceUp() ) {
-                System.out.print( "-" + f.getNumber() + "-" );
-            }
-            else {
-                System.out.print( "***" );
-            }
-            if ( pos % 4 == 0 ) {
-                System.out.println();
-            }
-            else {
-                System.out.print( " | " );
-            }
-            ++pos;
+     * Print on standard out help for the game.
+     */
+    private void displayHelp() {
+        if ( this.frames == Frames.LAST ) {
+            return;
         }
+        this.frame.setLength( 0 );
+        BoardText.appendHelp( this.frame, this.model.getWidth(),
+                              this.model.getNumCards() );
+        write( this.frame );
     }
 
     /**
-     * Print on standard out help for the game.
+     * Print on standard out the card to select next.
      */
-    private void displayHelp() {
-        System.out.println( " 00 | 01 | 02 | 03" );
-        System.out.println( " 04 | 05 | 06 | 07" );
-        System.out.println( " 08 | 09 | 10 | 11" );
-        System.out.println( " 12 | 13 | 14 | 15" );
-        System.out.println( "s(elect) n  -- select the card n to flip" );
-        System.out.println( "u(ndo)      -- undo last flip" );
-        System.out.println( "q(uit)      -- quit the game" );
-        System.out.println( "r(eset)     -- start a new game" );
-        System.out.println( "c(heat)     -- see where the cards are" );
+    private void displayHint() {
+        if ( this.frames == Frames.LAST ) {
+            return;
+        }
+        this.frame.setLength( 0 );
+        BoardText.appendHint( this.frame, this.model.getHints() );
+        write( this.frame );
     }
 
     public void update( ConcentrationModel o, Object arg ) {
-        // if arg is not null, it means the user wants to get the "cheat" board
+        if ( this.frames == Frames.LAST ) {
+            return;
+        }
+        ModelEvent event = arg instanceof ModelEvent ? ( ModelEvent ) arg
+                : null;
+        this.frame.setLength( 0 );
+        if ( event != null && event.getType() == ModelEvent.Type.GAME_OVER ) {
+            this.frame.append( "YOU WIN!\n" );
+        }
+        else {
+            render( event );
+        }
+        write( this.frame );
+    }
+
+    /**
+     * Render the frame for a change into the frame buffer: the cards as a
+     * grid, or just the cards that changed, the move count and brief
+     * directions.  A whole board is followed by a win if the game is won.
+     *
+     * @param event the change, or null to render the whole board
+     */
+    private void render( ModelEvent event ) {
+        // a CHEAT event means the user wants to get the "cheat" board
         // with all cards face up
-        displayBoard( this.model.getMoveCount(),
-                      this.model.howManyCardsUp(),
-                      arg == null ? this.model.getCards()
-                              : this.model.getCheat(),
-                      false
-        );
-
-        // display a win if all cards are face up (not cheating)
-        if ( this.model.getCards().stream()
-                       .allMatch( face -> face.isFaceUp() ) ) {
-            System.out.println( "YOU WIN!" );
+        boolean cheat =
+                event != null && event.getType() == ModelEvent.Type.CHEAT;
+        int n = this.model.getMoveCount();
+        int up = this.model.howManyCardsUp();
+        boolean mismatched = this.model.isMismatched();
+        if ( this.frames == Frames.DIFF && event != null &&
+             event.getType() != ModelEvent.Type.RESET &&
+             event.getType() != ModelEvent.Type.CHEAT ) {
+            BoardText.appendChanges( this.frame, n, up, mismatched,
+                                     this.model.getBoardView(), event );
+        }
+        else {
+            BoardText.appendBoard( this.frame, n, up, mismatched,
+                                   cheat ? this.model.getCheatView()
+                                           : this.model.getBoardView() );
+        }
+
+        // a win is announced by its own event; a whole board shows it too
+        if ( event == null && this.model.isWon() ) {
+            this.frame.append( "YOU WIN!\n" );
+        }
+    }
+
+    /**
+     * Write text, flushing it at once if a player is waiting for it.
+     *
+     * @param text the text
+     */
+    private void write( CharSequence text ) {
+        try {
+            this.out.append( text );
+            if ( this.interactive ) {
+                this.out.flush();
+            }
+        }
+        catch ( IOException e ) {
+            throw new UncheckedIOException( e );
         }
     }
 
     /**
      * The main method used to play a game.
      *
-     * @param args Command line arguments -- unused
+     * @param args Command line arguments -- optional board width and
+     *             height, then options: --batch file (or - for standard
+     *             in) runs a script of commands; --frames all|diff|last
+     *             chooses the frames printed in batch mode; --seed n deals
+     *             the first board from seed n; --group k matches cards in
+     *             groups of k rather than pairs
+     * @throws IOException if a batch script cannot be read
      */
-    public static void main( String[] args ) {
-        ConcentrationPTUI ptui = new ConcentrationPTUI();
-        ptui.run();
+    public static void main( String[] args ) throws IOException {
+        int width = ConcentrationModel.BOARD_SIZE;
+        int height = ConcentrationModel.BOARD_SIZE;
+        String batch = null;
+        Frames frames = Frames.ALL;
+        Long seed = null;
+        int group = ConcentrationModel.DEFAULT_GROUP_SIZE;
+        int positional = 0;
+        for ( int i = 0; i < args.length; ++i ) {
+            switch ( args[ i ] ) {
+                case "--batch":
+                    batch = args[ ++i ];
+                    break;
+                case "--frames":
+                    frames = Frames.valueOf( args[ ++i ].toUpperCase() );
+                    break;
+                case "--seed":
+                    seed = Long.parseLong( args[ ++i ] );
+                    break;
+                case "--group":
+                    group = Integer.parseInt( args[ ++i ] );
+                    break;
+                default:
+                    if ( positional++ == 0 ) {
+                        width = Integer.parseInt( args[ i ] );
+                    }
+                    else {
+                        height = Integer.parseInt( args[ i ] );
+                    }
+            }
+        }
+        ConcentrationModel model = new ConcentrationModel(
+                width, height, group,
+                seed == null ? ConcentrationModel.nextSeed() : seed );
+        if ( batch == null ) {
+            ConcentrationPTUI ptui = new ConcentrationPTUI( model, Frames.ALL,
+                                                            true );
+            FirstFrame.reached( "ptui" );
+            ptui.run();
+            return;
+        }
+        ConcentrationPTUI ptui = new ConcentrationPTUI( model, frames, false );
+        try ( Reader script = batch.equals( "-" )
+                ? new InputStreamReader( System.in )
+                : new FileReader( batch ) ) {
+            ptui.runBatch( script );
+        }
     }
 }
@@ -0,0 +1,230 @@
+package server;
+
+import model.ConcentrationModel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A game server that hosts many concurrent games over TCP.  Players
+ * connect to a local port and type the same s/u/r/c/q commands as in the
+ * PTUI.  Each connection gets its own model and its own thread (a virtual
+ * thread where the JDK has them), and sees the board after every command.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class ConcentrationServer implements Closeable {
+    /**
+     * The port used when none is given.
+     */
+    public static final int DEFAULT_PORT = 5555;
+
+    /**
+     * The number of pending connections the operating system may queue.
+     */
+    private static final int BACKLOG = 4096;
+
+    /**
+     * The longest wait after a failed accept, in milliseconds.
+     */
+    private static final long MAX_BACK_OFF_MS = 1000;
+
+    /**
+     * The listening socket.
+     */
+    private final ServerSocket listener;
+
+    /**
+     * The number of columns on each board.
+     */
+    private final int width;
+
+    /**
+     * The number of rows on each board.
+     */
+    private final int height;
+
+    /**
+     * Runs the acceptor and the sessions.
+     */
+    private final ExecutorService threads;
+
+    /**
+     * The number of sessions in progress.
+     */
+    private final AtomicInteger sessions;
+
+    /**
+     * Bind the server to a port on the loopback interface.
+     *
+     * @param port   the port, or 0 for any free port
+     * @param width  the number of columns on each board
+     * @param height the number of rows on each board
+     * @throws IOException if the port cannot be bound
+     */
+    public ConcentrationServer( int port, int width, int height )
+            throws IOException {
+        this.listener = new ServerSocket( port, BACKLOG,
+                                          InetAddress.getLoopbackAddress() );
+        this.width = width;
+        this.height = height;
+        this.threads = Threads.perTask( "session" );
+        this.sessions = new AtomicInteger();
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return this.listener.getLocalPort();
+    }
+
+    /**
+     * @return the number of sessions in progress
+     */
+    public int getSessionCount() {
+        return this.sessions.get();
+    }
+
+    /**
+     * Start accepting players in the background.
+     */
+    public void start() {
+        this.threads.execute( this::serve );
+    }
+
+    /**
+     * Accept players on the calling thread until the server is closed.
+     * When accepting keeps failing, as it does while the process is out
+     * of file descriptors, the acceptor reports the failure and waits a
+     * little longer before each try, rather than spinning.
+     */
+    public void serve() {
+        int failures = 0;
+        while ( !this.listener.isClosed() ) {
+            Socket socket;
+            try {
+                socket = this.listener.accept();
+                failures = 0;
+            }
+            catch ( IOException e ) {
+                if ( this.listener.isClosed() || !backOff( e, ++failures ) ) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                startSession( socket );
+            }
+            catch ( IOException | RejectedExecutionException e ) {
+                // the connection failed, or the server was closed
+                // while it was being accepted
+                closeQuietly( socket );
+            }
+        }
+    }
+
+    /**
+     * Start a session for a player who has just connected.
+     *
+     * @param socket the connection to the player
+     * @throws IOException                if the connection cannot be set up
+     * @throws RejectedExecutionException if the server has been closed
+     */
+    private void startSession( Socket socket ) throws IOException {
+        socket.setTcpNoDelay( true );
+        ConcentrationModel model =
+                new ConcentrationModel( this.width, this.height );
+        Session session = new Session( socket, model );
+        this.sessions.incrementAndGet();
+        try {
+            this.threads.execute( () -> {
+                try {
+                    session.run();
+                }
+                finally {
+                    this.sessions.decrementAndGet();
+                }
+            } );
+        }
+        catch ( RejectedExecutionException e ) {
+            this.sessions.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Report a failed accept, the first time and then whenever the number
+     * of failures in a row doubles, and wait before the next try.
+     *
+     * @param e        the failure
+     * @param failures the number of accepts in a row that have failed
+     * @return false if interrupted while waiting
+     */
+    private static boolean backOff( IOException e, int failures ) {
+        if ( Integer.bitCount( failures ) == 1 ) {
+            System.err.println( "accept failed " + failures +
+                                " time(s) in a row: " + e );
+        }
+        try {
+            Thread.sleep( Math.min( MAX_BACK_OFF_MS,
+                                    1L << Math.min( failures, 10 ) ) );
+            return true;
+        }
+        catch ( InterruptedException interrupted ) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Close a socket, ignoring any failure.
+     *
+     * @param socket the socket
+     */
+    private static void closeQuietly( Socket socket ) {
+        try {
+            socket.close();
+        }
+        catch ( IOException e ) {
+            // nothing more can be done for it
+        }
+    }
+
+    /**
+     * Stop accepting players.  Sessions in progress end when their
+     * players hang up.
+     *
+     * @throws IOException if the listener cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.listener.close();
+        this.threads.shutdown();
+    }
+
+    /**
+     * Run a server until the process is killed.
+     *
+     * @param args [port [width height]]
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main( String[] args ) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt( args[ 0 ] )
+                : DEFAULT_PORT;
+        int width = args.length > 2 ? Integer.parseInt( args[ 1 ] )
+                : ConcentrationModel.BOARD_SIZE;
+        int height = args.length > 2 ? Integer.parseInt( args[ 2 ] )
+                : ConcentrationModel.BOARD_SIZE;
+        ConcentrationServer server =
+                new ConcentrationServer( port, width, height );
+        System.out.println( "listening on port " + server.getPort() );
+        server.serve();
+    }
+}
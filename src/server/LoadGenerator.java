@@ -0,0 +1,172 @@
+package server;
+
+import model.ConcentrationModel;
+import ptui.BoardText;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A load generator for the game server.  It opens a number of idle
+ * connections, which only hold a session open, and a number of active
+ * clients, which each play random select commands as fast as the server
+ * answers.  It reports the throughput and the latency distribution of
+ * the commands.  Without a port it starts a server of its own, so the
+ * whole test runs over loopback in one process.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class LoadGenerator {
+    /**
+     * The prompt that ends every reply, in bytes.
+     */
+    private static final byte[] PROMPT =
+            BoardText.PROMPT.getBytes( StandardCharsets.US_ASCII );
+
+    /**
+     * Play one client: connect, then time each command until the reply's
+     * prompt arrives.
+     *
+     * @param port     the server port
+     * @param commands the number of commands to send
+     * @param numCards the number of cards on the server's boards
+     * @param seed     the seed for the client's choices
+     * @return the latency of each command, in nanoseconds
+     * @throws IOException if the connection fails
+     */
+    private static long[] play( int port, int commands, int numCards,
+                                long seed ) throws IOException {
+        long[] latencies = new long[ commands ];
+        SplittableRandom rng = new SplittableRandom( seed );
+        try ( Socket socket =
+                      new Socket( InetAddress.getLoopbackAddress(), port ) ) {
+            socket.setTcpNoDelay( true );
+            InputStream in = new BufferedInputStream( socket.getInputStream() );
+            OutputStream out = socket.getOutputStream();
+            awaitPrompt( in );
+            for ( int i = 0; i < commands; ++i ) {
+                String command = rng.nextInt( 16 ) == 0 ? "u\n"
+                        : "s " + rng.nextInt( numCards ) + "\n";
+                long start = System.nanoTime();
+                out.write( command.getBytes( StandardCharsets.US_ASCII ) );
+                out.flush();
+                awaitPrompt( in );
+                latencies[ i ] = System.nanoTime() - start;
+            }
+            out.write( "q\n".getBytes( StandardCharsets.US_ASCII ) );
+            out.flush();
+        }
+        return latencies;
+    }
+
+    /**
+     * Read until the end of the next prompt.
+     *
+     * @param in the server's replies
+     * @throws IOException if the server hangs up
+     */
+    private static void awaitPrompt( InputStream in ) throws IOException {
+        int matched = 0;
+        while ( matched < PROMPT.length ) {
+            int b = in.read();
+            if ( b < 0 ) {
+                throw new IOException( "server hung up" );
+            }
+            matched = b == PROMPT[ matched ] ? matched + 1
+                    : b == PROMPT[ 0 ] ? 1 : 0;
+        }
+    }
+
+    /**
+     * @param sorted latencies in ascending order
+     * @param p      a fraction between 0 and 1
+     * @return the latency at that fraction, in microseconds
+     */
+    private static double percentile( long[] sorted, double p ) {
+        int i = ( int ) Math.min( sorted.length - 1,
+                                  Math.ceil( p * sorted.length ) - 1 );
+        return sorted[ Math.max( i, 0 ) ] / 1e3;
+    }
+
+    /**
+     * Run the load test.
+     *
+     * @param args clients commands [idle [port [width height]]]; without
+     *             a port, or with port 0, an embedded server on a free
+     *             port is used; width and height must match the boards
+     *             of the server under test
+     * @throws Exception if the test cannot be run
+     */
+    public static void main( String[] args ) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 100;
+        int commands = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 1000;
+        int idle = args.length > 2 ? Integer.parseInt( args[ 2 ] ) : 0;
+        int width = args.length > 5 ? Integer.parseInt( args[ 4 ] )
+                : ConcentrationModel.BOARD_SIZE;
+        int height = args.length > 5 ? Integer.parseInt( args[ 5 ] )
+                : ConcentrationModel.BOARD_SIZE;
+        ConcentrationServer embedded = null;
+        int port = args.length > 3 ? Integer.parseInt( args[ 3 ] ) : 0;
+        if ( port == 0 ) {
+            embedded = new ConcentrationServer( 0, width, height );
+            embedded.start();
+        }
+        int serverPort = embedded != null ? embedded.getPort() : port;
+
+        List< Socket > idlers = new ArrayList<>();
+        for ( int i = 0; i < idle; ++i ) {
+            Socket socket =
+                    new Socket( InetAddress.getLoopbackAddress(), serverPort );
+            awaitPrompt( socket.getInputStream() );
+            idlers.add( socket );
+        }
+
+        ExecutorService threads = Threads.perTask( "client" );
+        List< Future< long[] > > results = new ArrayList<>();
+        long start = System.nanoTime();
+        for ( int c = 0; c < clients; ++c ) {
+            long seed = c;
+            results.add( threads.submit(
+                    () -> play( serverPort, commands, width * height,
+                                seed ) ) );
+        }
+        long[] all = new long[ clients * commands ];
+        int k = 0;
+        for ( Future< long[] > result : results ) {
+            long[] latencies = result.get();
+            System.arraycopy( latencies, 0, all, k, latencies.length );
+            k += latencies.length;
+        }
+        double seconds = ( System.nanoTime() - start ) / 1e9;
+        threads.shutdown();
+
+        Arrays.sort( all );
+        System.out.printf( "%d clients (%d idle), %d commands in %.3f s: " +
+                           "%.0f commands/s%n",
+                           clients, idle, all.length, seconds,
+                           all.length / seconds );
+        System.out.printf( "latency us: p50=%.1f p90=%.1f p99=%.1f " +
+                           "p99.9=%.1f max=%.1f%n",
+                           percentile( all, 0.5 ), percentile( all, 0.9 ),
+                           percentile( all, 0.99 ), percentile( all, 0.999 ),
+                           percentile( all, 1 ) );
+
+        for ( Socket socket : idlers ) {
+            socket.close();
+        }
+        if ( embedded != null ) {
+            embedded.close();
+        }
+    }
+}
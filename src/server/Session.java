@@ -0,0 +1,134 @@
+package server;
+
+import model.ConcentrationModel;
+import model.ModelEvent;
+import model.Observer;
+import ptui.BoardText;
+import ptui.Commands;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One player connected to the server.  The session owns its own model,
+ * reads command lines from the socket and runs them, and observes the
+ * model so that every change is rendered into the reply.  The reply to a
+ * command, ending with the prompt, is written with a single flush.
+ *
+ * @author Adrian Burgos awb8593
+ */
+final class Session implements Runnable,
+        Observer< ConcentrationModel, Object > {
+    /**
+     * The size of the socket read buffer, in characters.  Commands are
+     * short, so a small buffer keeps idle sessions small.
+     */
+    private static final int READ_BUFFER = 256;
+
+    /**
+     * The connection to the player.
+     */
+    private final Socket socket;
+
+    /**
+     * The game being played.
+     */
+    private final ConcentrationModel model;
+
+    /**
+     * The reply being built; reused for every reply.
+     */
+    private final StringBuilder reply;
+
+    /**
+     * Create a session.
+     *
+     * @param socket the connection to the player
+     * @param model  the game to play
+     */
+    Session( Socket socket, ConcentrationModel model ) {
+        this.socket = socket;
+        this.model = model;
+        this.reply = new StringBuilder();
+    }
+
+    /**
+     * Serve the player until they quit or hang up.
+     */
+    @Override
+    public void run() {
+        try ( Socket s = this.socket;
+              BufferedReader in = new BufferedReader(
+                      new InputStreamReader( s.getInputStream(),
+                                             StandardCharsets.US_ASCII ),
+                      READ_BUFFER );
+              Writer out = new OutputStreamWriter( s.getOutputStream(),
+                                                   StandardCharsets.US_ASCII ) ) {
+            this.model.addObserver( this );
+            update( this.model, null );
+            send( out );
+            String line;
+            while ( ( line = in.readLine() ) != null ) {
+                Commands.Result result = Commands.execute( this.model, line );
+                if ( result == Commands.Result.QUIT ) {
+                    break;
+                }
+                if ( result == Commands.Result.HELP ) {
+                    BoardText.appendHelp( this.reply, this.model.getWidth(),
+                                          this.model.getNumCards() );
+                }
+                else if ( result == Commands.Result.HINT ) {
+                    BoardText.appendHint( this.reply, this.model.getHints() );
+                }
+                send( out );
+            }
+        }
+        catch ( IOException e ) {
+            // the player hung up; nothing more to do
+        }
+    }
+
+    /**
+     * Write the reply followed by the prompt, then start a new reply.
+     *
+     * @param out the socket writer
+     * @throws IOException if the player hung up
+     */
+    private void send( Writer out ) throws IOException {
+        this.reply.append( BoardText.PROMPT );
+        out.append( this.reply );
+        out.flush();
+        this.reply.setLength( 0 );
+    }
+
+    /**
+     * Render the board into the reply, the same way the PTUI does.
+     *
+     * @param model the game being played
+     * @param arg   the ModelEvent describing the change, or null
+     */
+    @Override
+    public void update( ConcentrationModel model, Object arg ) {
+        ModelEvent event = arg instanceof ModelEvent ? ( ModelEvent ) arg
+                : null;
+        if ( event != null && event.getType() == ModelEvent.Type.GAME_OVER ) {
+            this.reply.append( "YOU WIN!\n" );
+            return;
+        }
+        boolean cheat =
+                event != null && event.getType() == ModelEvent.Type.CHEAT;
+        BoardText.appendBoard( this.reply, this.model.getMoveCount(),
+                               this.model.howManyCardsUp(),
+                               this.model.isMismatched(),
+                               cheat ? this.model.getCheatView()
+                                       : this.model.getBoardView() );
+        if ( event == null && this.model.isWon() ) {
+            this.reply.append( "YOU WIN!\n" );
+        }
+    }
+}
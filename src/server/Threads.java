@@ -0,0 +1,48 @@
+package server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the threads that run sessions and clients.  On a JDK with
+ * virtual threads every task gets a virtual thread; otherwise every task
+ * gets a daemon platform thread with a small stack, which keeps idle
+ * sessions as cheap as platform threads allow.
+ *
+ * @author Adrian Burgos awb8593
+ */
+final class Threads {
+    /**
+     * The stack size of the platform threads, in bytes.
+     */
+    private static final long STACK_SIZE = 256 * 1024;
+
+    private Threads() {
+    }
+
+    /**
+     * @param name the prefix of the thread names
+     * @return an executor that starts a new thread for each task
+     */
+    static ExecutorService perTask( String name ) {
+        try {
+            Method virtual = Executors.class.getMethod(
+                    "newVirtualThreadPerTaskExecutor" );
+            return ( ExecutorService ) virtual.invoke( null );
+        }
+        catch ( ReflectiveOperationException e ) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = task -> {
+                Thread thread = new Thread(
+                        null, task, name + "-" + count.incrementAndGet(),
+                        STACK_SIZE );
+                thread.setDaemon( true );
+                return thread;
+            };
+            return Executors.newCachedThreadPool( factory );
+        }
+    }
+}
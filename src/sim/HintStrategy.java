@@ -0,0 +1,48 @@
+package sim;
+
+import model.ConcentrationModel;
+import model.Hints;
+
+import java.util.SplittableRandom;
+
+/**
+ * A player that keeps no memory of its own and asks the model for hints
+ * instead.  It plays as {@link MemoryStrategy} does: it finishes a pair it
+ * knows about, and otherwise turns over a card never seen, chosen at
+ * random.  Each move costs a few constant-time queries of the model's
+ * {@link Hints}.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class HintStrategy implements Strategy {
+    /**
+     * The source of randomness for this game.
+     */
+    private final SplittableRandom rng;
+
+    /**
+     * Create the player for one game.
+     *
+     * @param model the game that will be played
+     * @param seed  the seed for the player's choices
+     */
+    public HintStrategy( ConcentrationModel model, long seed ) {
+        this.rng = new SplittableRandom( seed );
+    }
+
+    @Override
+    public int nextCard( ConcentrationModel model ) {
+        Hints hints = model.getHints();
+        int n = hints.hint();
+        if ( n >= 0 && !hints.isSeen( n ) ) {
+            // any card never seen is as good as the one suggested
+            n = hints.unseenAt( this.rng.nextInt( hints.unseenCount() ) );
+        }
+        return n;
+    }
+
+    @Override
+    public void revealed( int n, int number ) {
+        // the model remembers
+    }
+}
@@ -0,0 +1,99 @@
+package sim;
+
+import java.util.SplittableRandom;
+
+/**
+ * A set of board indices with O(1) add, remove, membership and uniform
+ * random choice.  The members are kept densely in one array and each
+ * index remembers its slot in another.
+ *
+ * @author Adrian Burgos awb8593
+ */
+final class IndexSet {
+    /**
+     * The members, densely packed in the first size slots.
+     */
+    private final int[] members;
+
+    /**
+     * The slot of each index in members, or -1 if it is not a member.
+     */
+    private final int[] slots;
+
+    /**
+     * The number of members.
+     */
+    private int size;
+
+    /**
+     * Create a set holding every index from 0 to capacity - 1.
+     *
+     * @param capacity the number of indices
+     */
+    IndexSet( int capacity ) {
+        this.members = new int[ capacity ];
+        this.slots = new int[ capacity ];
+        for ( int i = 0; i < capacity; ++i ) {
+            this.members[ i ] = i;
+            this.slots[ i ] = i;
+        }
+        this.size = capacity;
+    }
+
+    /**
+     * @return the number of members
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @param i an index
+     * @return true if i is a member
+     */
+    boolean contains( int i ) {
+        return this.slots[ i ] >= 0;
+    }
+
+    /**
+     * Remove an index if it is a member.
+     *
+     * @param i an index
+     */
+    void remove( int i ) {
+        int slot = this.slots[ i ];
+        if ( slot >= 0 ) {
+            int last = this.members[ --this.size ];
+            this.members[ slot ] = last;
+            this.slots[ last ] = slot;
+            this.slots[ i ] = -1;
+        }
+    }
+
+    /**
+     * Choose a member uniformly at random.
+     *
+     * @param rng the source of randomness
+     * @return a member
+     */
+    int pick( SplittableRandom rng ) {
+        return this.members[ rng.nextInt( this.size ) ];
+    }
+
+    /**
+     * Choose a member other than the given one uniformly at random.  The
+     * set must hold at least one such member.
+     *
+     * @param rng     the source of randomness
+     * @param exclude an index not to choose
+     * @return a member
+     */
+    int pickOther( SplittableRandom rng, int exclude ) {
+        int slot = this.slots[ exclude ];
+        if ( slot < 0 ) {
+            return pick( rng );
+        }
+        int r = rng.nextInt( this.size - 1 );
+        return this.members[ r < slot ? r : r + 1 ];
+    }
+}
@@ -0,0 +1,125 @@
+package sim;
+
+import model.ConcentrationModel;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A player with perfect memory.  It always finishes a pair it knows
+ * about, and otherwise turns over a card it has never seen.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class MemoryStrategy implements Strategy {
+    /**
+     * The cards that have never been turned over.
+     */
+    private final IndexSet unseen;
+
+    /**
+     * For each number, where it was first seen, or -1.
+     */
+    private final int[] seenA;
+
+    /**
+     * For each number, where its partner was seen, or -1.
+     */
+    private final int[] seenB;
+
+    /**
+     * For each number, whether its pair has been matched.
+     */
+    private final boolean[] matched;
+
+    /**
+     * Numbers whose two positions are both known.  Entries that have
+     * since been matched are skipped when the stack is read.
+     */
+    private final int[] known;
+
+    /**
+     * The number of entries in known.
+     */
+    private int knownSize;
+
+    /**
+     * The source of randomness for this game.
+     */
+    private final SplittableRandom rng;
+
+    /**
+     * The first card of the pair in progress, or -1.
+     */
+    private int first;
+
+    /**
+     * The number on the first card of the pair in progress.
+     */
+    private int firstNumber;
+
+    /**
+     * Create the player for one game.
+     *
+     * @param model the game that will be played
+     * @param seed  the seed for the player's choices
+     * @throws IllegalArgumentException if the game is not played in pairs
+     */
+    public MemoryStrategy( ConcentrationModel model, long seed ) {
+        if ( model.getGroupSize() != ConcentrationModel.DEFAULT_GROUP_SIZE ) {
+            throw new IllegalArgumentException(
+                    "MemoryStrategy plays pairs only" );
+        }
+        int pairs = model.getNumPairs();
+        this.unseen = new IndexSet( model.getNumCards() );
+        this.seenA = new int[ pairs ];
+        this.seenB = new int[ pairs ];
+        this.matched = new boolean[ pairs ];
+        this.known = new int[ pairs ];
+        Arrays.fill( this.seenA, -1 );
+        Arrays.fill( this.seenB, -1 );
+        this.rng = new SplittableRandom( seed );
+        this.first = -1;
+    }
+
+    @Override
+    public int nextCard( ConcentrationModel model ) {
+        if ( this.first < 0 ) {
+            while ( this.knownSize > 0 &&
+                    this.matched[ this.known[ this.knownSize - 1 ] ] ) {
+                --this.knownSize;
+            }
+            if ( this.knownSize > 0 ) {
+                return this.seenA[ this.known[ this.knownSize - 1 ] ];
+            }
+            return this.unseen.pick( this.rng );
+        }
+        int partner = this.seenA[ this.firstNumber ] == this.first
+                ? this.seenB[ this.firstNumber ]
+                : this.seenA[ this.firstNumber ];
+        return partner >= 0 ? partner : this.unseen.pick( this.rng );
+    }
+
+    @Override
+    public void revealed( int n, int number ) {
+        this.unseen.remove( n );
+        if ( this.seenA[ number ] < 0 ) {
+            this.seenA[ number ] = n;
+        }
+        else if ( this.seenA[ number ] != n && this.seenB[ number ] < 0 ) {
+            this.seenB[ number ] = n;
+            this.known[ this.knownSize++ ] = number;
+        }
+
+        if ( this.first < 0 ) {
+            this.first = n;
+            this.firstNumber = number;
+        }
+        else {
+            if ( number == this.firstNumber ) {
+                this.matched[ number ] = true;
+            }
+            this.first = -1;
+        }
+    }
+}
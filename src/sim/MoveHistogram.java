@@ -0,0 +1,236 @@
+package sim;
+
+/**
+ * The distribution of move counts over a batch of games.  Each worker
+ * fills its own histogram and the results are merged afterwards, so no
+ * counter is ever shared between threads.
+ * <p>
+ * Move counts below {@link #EXACT_MOVES} are counted exactly.  Larger ones,
+ * which only games on big boards reach, go into buckets that each cover
+ * 1/64 of a power of two, so a histogram holds a few thousand counters
+ * however high the move limit.  The mean, the fewest and the most moves
+ * are always exact; a percentile that falls in a bucket is reported as
+ * the largest count the bucket holds, at most 1.6% too high.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class MoveHistogram {
+    /**
+     * The bits of the move counts that are counted exactly.
+     */
+    private static final int EXACT_BITS = 12;
+
+    /**
+     * Move counts below this are counted exactly.
+     */
+    public static final int EXACT_MOVES = 1 << EXACT_BITS;
+
+    /**
+     * The bits of a larger move count, after its leading one, that pick
+     * its bucket within its power of two.
+     */
+    private static final int SUB_BITS = 6;
+
+    /**
+     * The number of buckets in each power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * The number of buckets for move counts from EXACT_MOVES up to the
+     * largest int.
+     */
+    private static final int BUCKETS =
+            ( Integer.SIZE - 1 - EXACT_BITS ) * SUB_BUCKETS;
+
+    /**
+     * The largest move count that can be recorded.
+     */
+    private final int maxMoves;
+
+    /**
+     * counts[m] is the number of games finished in exactly m moves.
+     */
+    private final long[] counts;
+
+    /**
+     * The games finished in EXACT_MOVES moves or more, by bucket; null if
+     * the move limit is below that.
+     */
+    private final long[] buckets;
+
+    /**
+     * The number of games finished.
+     */
+    private long finished;
+
+    /**
+     * The total of the move counts of the finished games.
+     */
+    private long totalMoves;
+
+    /**
+     * The fewest and the most moves a finished game took.
+     */
+    private int fewest = Integer.MAX_VALUE;
+    private int most = -1;
+
+    /**
+     * The number of games that hit the move limit without finishing.
+     */
+    private long unfinished;
+
+    /**
+     * Create an empty histogram.
+     *
+     * @param maxMoves the largest move count that can be recorded
+     */
+    public MoveHistogram( int maxMoves ) {
+        this.maxMoves = maxMoves;
+        this.counts = new long[ Math.min( maxMoves, EXACT_MOVES - 1 ) + 1 ];
+        this.buckets = maxMoves >= EXACT_MOVES ? new long[ BUCKETS ] : null;
+    }
+
+    /**
+     * Record one game.
+     *
+     * @param moves the number of moves the game took, or a negative
+     *              number if it was not finished
+     */
+    public void record( int moves ) {
+        if ( moves < 0 || moves > this.maxMoves ) {
+            ++this.unfinished;
+            return;
+        }
+        if ( moves < EXACT_MOVES ) {
+            ++this.counts[ moves ];
+        }
+        else {
+            ++this.buckets[ bucket( moves ) ];
+        }
+        ++this.finished;
+        this.totalMoves += moves;
+        this.fewest = Math.min( this.fewest, moves );
+        this.most = Math.max( this.most, moves );
+    }
+
+    /**
+     * @param moves a move count of at least EXACT_MOVES
+     * @return the bucket it goes in
+     */
+    private static int bucket( int moves ) {
+        int bits = Integer.SIZE - Integer.numberOfLeadingZeros( moves );
+        int sub = ( moves >>> ( bits - 1 - SUB_BITS ) ) & ( SUB_BUCKETS - 1 );
+        return ( bits - 1 - EXACT_BITS ) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @param bucket a bucket
+     * @return the largest move count it holds
+     */
+    private static int upperBound( int bucket ) {
+        int bits = bucket / SUB_BUCKETS + EXACT_BITS + 1;
+        int sub = bucket % SUB_BUCKETS;
+        long bound = ( ( long ) ( SUB_BUCKETS + sub + 1 ) <<
+                       ( bits - 1 - SUB_BITS ) ) - 1;
+        return ( int ) Math.min( bound, Integer.MAX_VALUE );
+    }
+
+    /**
+     * Add another histogram's games to this one.
+     *
+     * @param other a histogram with the same move limit
+     */
+    public void merge( MoveHistogram other ) {
+        for ( int m = 0; m < this.counts.length; ++m ) {
+            this.counts[ m ] += other.counts[ m ];
+        }
+        if ( this.buckets != null ) {
+            for ( int b = 0; b < BUCKETS; ++b ) {
+                this.buckets[ b ] += other.buckets[ b ];
+            }
+        }
+        this.finished += other.finished;
+        this.totalMoves += other.totalMoves;
+        this.fewest = Math.min( this.fewest, other.fewest );
+        this.most = Math.max( this.most, other.most );
+        this.unfinished += other.unfinished;
+    }
+
+    /**
+     * @param moves a move count
+     * @return the number of games finished in exactly that many moves or,
+     * from EXACT_MOVES up, in the bucket that holds it
+     */
+    public long count( int moves ) {
+        if ( moves < 0 || moves > this.maxMoves ) {
+            return 0;
+        }
+        return moves < EXACT_MOVES ? this.counts[ moves ]
+                : this.buckets[ bucket( moves ) ];
+    }
+
+    /**
+     * @return the number of games that did not finish
+     */
+    public long getUnfinished() {
+        return this.unfinished;
+    }
+
+    /**
+     * @return the number of finished games
+     */
+    public long getFinished() {
+        return this.finished;
+    }
+
+    /**
+     * @return the mean move count of the finished games
+     */
+    public double mean() {
+        return this.finished == 0 ? Double.NaN
+                : ( double ) this.totalMoves / this.finished;
+    }
+
+    /**
+     * @param p a fraction between 0 and 1
+     * @return the smallest move count at or below which that fraction of
+     * the finished games lie, or -1 if there are none
+     */
+    public int percentile( double p ) {
+        if ( this.finished == 0 ) {
+            return -1;
+        }
+        long target = ( long ) Math.ceil( p * this.finished );
+        if ( target <= 0 ) {
+            return this.fewest;
+        }
+        long seen = 0;
+        for ( int m = 0; m < this.counts.length; ++m ) {
+            seen += this.counts[ m ];
+            if ( seen >= target ) {
+                return m;
+            }
+        }
+        for ( int b = 0; b < BUCKETS; ++b ) {
+            seen += this.buckets[ b ];
+            if ( seen >= target ) {
+                return Math.min( upperBound( b ), this.most );
+            }
+        }
+        return this.most;
+    }
+
+    /**
+     * @return a one-line summary of the distribution
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "games=%d unfinished=%d mean=%.3f min=%d p50=%d p90=%d " +
+                "p99=%d max=%d",
+                getFinished(), this.unfinished, mean(), percentile( 0 ),
+                percentile( 0.5 ), percentile( 0.9 ), percentile( 0.99 ),
+                percentile( 1 ) );
+    }
+}
@@ -0,0 +1,335 @@
+package sim;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Computes the expected number of moves ({@code selectCard} calls) that a
+ * player with perfect memory and perfect play still needs to finish a
+ * game.
+ * <p>
+ * What the player knows is summed up by three counts: the cards never
+ * seen (unseen), the numbers seen exactly once whose partner is still
+ * unseen (singles), and the pairs whose two positions are both known but
+ * not yet matched (known pairs).  A known pair always costs exactly two
+ * moves, so the solver works on E(unseen, singles) at the start of a
+ * turn and adds two moves per known pair.  E is found by dynamic
+ * programming: every turn leaves fewer unseen cards, so each row of E
+ * depends only on the two rows below it, and a row is filled bottom-up
+ * with no recursion.
+ * <p>
+ * A solver is made for boards of up to a given number of cards, and keeps
+ * a dense table of exactly the states those boards can reach: in row u
+ * the singles can be no more than u, nor more than the cards already
+ * seen.  Rows are computed the first time a state at or above them is
+ * wanted and kept from then on, so every lookup after the first in a
+ * game takes constant time.  The whole table for n cards holds about
+ * n * n / 8 values; {@link #expectedGameMoves(int)} finds the expected
+ * length of a whole game in O(n) memory instead.  A solver may be shared
+ * by many threads.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public final class OptimalSolver {
+    /**
+     * The rows below row 0, and the rows of states no board can reach.
+     */
+    private static final double[] EMPTY = new double[ 0 ];
+
+    /**
+     * The most cards on the boards this solver serves.
+     */
+    private final int numCards;
+
+    /**
+     * Row u holds E(u, k) at k / 2 for each reachable k of the parity of
+     * u; null until it is computed.
+     */
+    private final double[][] rows;
+
+    /**
+     * The number of rows computed, from row 0 up.
+     */
+    private volatile int filled;
+
+    /**
+     * The number of lookups answered from the table.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * The number of lookups that had to compute rows first.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create a solver.
+     *
+     * @param numCards the most cards on the boards it serves
+     * @throws IllegalArgumentException if numCards is negative or odd
+     */
+    public OptimalSolver( int numCards ) {
+        if ( numCards < 0 || ( numCards & 1 ) != 0 ) {
+            throw new IllegalArgumentException(
+                    "Bad number of cards: " + numCards );
+        }
+        this.numCards = numCards;
+        this.rows = new double[ numCards + 1 ][];
+    }
+
+    /**
+     * @return the most cards on the boards this solver serves
+     */
+    public int getNumCards() {
+        return this.numCards;
+    }
+
+    /**
+     * The expected length of a whole game under optimal play, found row
+     * by row keeping only three rows in hand.
+     *
+     * @param numCards the number of cards on the board
+     * @return E(numCards, 0)
+     * @throws IllegalArgumentException if numCards is negative or odd
+     */
+    public static double expectedGameMoves( int numCards ) {
+        if ( numCards < 0 || ( numCards & 1 ) != 0 ) {
+            throw new IllegalArgumentException(
+                    "Bad number of cards: " + numCards );
+        }
+        double[][] rolling = new double[ 3 ][];
+        for ( int r = 0; r <= numCards; ++r ) {
+            double[] row = new double[ width( numCards, r ) ];
+            if ( r > 0 ) {
+                computeRow( r, row, rolling[ ( r + 2 ) % 3 ],
+                            r > 1 ? rolling[ ( r + 1 ) % 3 ] : EMPTY );
+            }
+            rolling[ r % 3 ] = row;
+        }
+        return rolling[ numCards % 3 ][ 0 ];
+    }
+
+    /**
+     * The expected moves left at the start of a turn when no pair is
+     * known.
+     *
+     * @param unseen  the number of cards never seen
+     * @param singles the number of numbers seen once
+     * @return the expected number of moves under optimal play
+     * @throws IllegalArgumentException if the counts cannot happen
+     */
+    public double expectedMoves( int unseen, int singles ) {
+        check( unseen, singles );
+        return e( unseen, singles );
+    }
+
+    /**
+     * The expected moves left at the start of a turn.
+     *
+     * @param unseen     the number of cards never seen
+     * @param singles    the number of numbers seen once
+     * @param knownPairs the number of pairs known but not matched
+     * @return the expected number of moves under optimal play
+     * @throws IllegalArgumentException if the counts cannot happen
+     */
+    public double expectedMoves( int unseen, int singles, int knownPairs ) {
+        check( unseen, singles );
+        return 2.0 * knownPairs + e( unseen, singles );
+    }
+
+    /**
+     * The expected moves left in the middle of a turn, when the card
+     * turned up is one of the singles and its partner is still unseen.
+     *
+     * @param unseen     the number of cards never seen
+     * @param singles    the number of numbers seen once, counting the one
+     *                   turned up
+     * @param knownPairs the number of pairs known but not matched
+     * @return the expected number of moves under optimal play
+     * @throws IllegalArgumentException if the counts cannot happen
+     */
+    public double expectedMovesWithSingleUp( int unseen, int singles,
+                                             int knownPairs ) {
+        check( unseen, singles );
+        if ( singles == 0 ) {
+            throw new IllegalArgumentException( "no single is turned up" );
+        }
+        double best = secondCard( unseen, singles );
+        if ( singles > 1 || knownPairs > 0 ) {
+            // the second card may be spent on a card already known
+            best = Math.min( best, 1 + e( unseen, singles ) );
+        }
+        return 2.0 * knownPairs + best;
+    }
+
+    /**
+     * @return the number of lookups answered from the table
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to compute rows first
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @param unseen  the number of cards never seen
+     * @param singles the number of numbers seen once
+     * @throws IllegalArgumentException if the counts cannot happen on the
+     *                                  boards this solver serves
+     */
+    private void check( int unseen, int singles ) {
+        if ( singles < 0 || unseen < singles || unseen > this.numCards ||
+             singles > this.numCards - unseen ||
+             ( ( unseen - singles ) & 1 ) != 0 ) {
+            throw new IllegalArgumentException(
+                    "impossible state: unseen=" + unseen +
+                    " singles=" + singles + " with " + this.numCards +
+                    " cards" );
+        }
+    }
+
+    /**
+     * E(u, k), computing the rows up to u first if they are missing.
+     *
+     * @param u the number of cards never seen
+     * @param k the number of singles
+     * @return the expected number of moves left
+     */
+    private double e( int u, int k ) {
+        if ( u < this.filled ) {
+            this.hits.increment();
+        }
+        else {
+            this.misses.increment();
+            fill( u );
+        }
+        return this.rows[ u ][ k >> 1 ];
+    }
+
+    /**
+     * Compute the missing rows up to row u.
+     *
+     * @param u the highest row wanted
+     */
+    private synchronized void fill( int u ) {
+        for ( int r = this.filled; r <= u; ++r ) {
+            double[] row = new double[ width( this.numCards, r ) ];
+            if ( r > 0 ) {
+                computeRow( r, row, this.rows[ r - 1 ],
+                            r > 1 ? this.rows[ r - 2 ] : EMPTY );
+            }
+            this.rows[ r ] = row;
+            // publishes the row to readers that see the new count
+            this.filled = r + 1;
+        }
+    }
+
+    /**
+     * @param numCards the most cards on the board
+     * @param u        a row
+     * @return the number of reachable states in the row
+     */
+    private static int width( int numCards, int u ) {
+        int most = Math.min( u, numCards - u );
+        return most < ( u & 1 ) ? 0 : ( most - ( u & 1 ) ) / 2 + 1;
+    }
+
+    /**
+     * Compute every cell of a row from the two rows below it.
+     *
+     * @param u      the row, at least 1
+     * @param row    receives E(u, k) at k / 2
+     * @param below  row u - 1
+     * @param below2 row u - 2
+     */
+    private static void computeRow( int u, double[] row, double[] below,
+                                    double[] below2 ) {
+        for ( int j = 0; j < row.length; ++j ) {
+            row[ j ] = cell( u, 2 * j + ( u & 1 ), below, below2 );
+        }
+    }
+
+    /**
+     * @param row a row
+     * @param k   a number of singles of the parity of the row
+     * @return E at k in the row, or 0 past its reachable states, which the
+     * formulas give no weight
+     */
+    private static double at( double[] row, int k ) {
+        return k >> 1 < row.length ? row[ k >> 1 ] : 0;
+    }
+
+    /**
+     * Compute one cell from the two rows below it.  The first card of the
+     * turn is either an unseen card or one of the singles.
+     *
+     * @param u      the number of cards never seen, at least 1
+     * @param k      the number of singles
+     * @param below  row u - 1
+     * @param below2 row u - 2
+     * @return E(u, k)
+     */
+    private static double cell( int u, int k, double[] below,
+                                double[] below2 ) {
+        double unseenFirst = 0;
+        if ( k > 0 ) {
+            // it is the partner of a single, which is then matched
+            unseenFirst += ( double ) k / u * ( 2 + at( below, k - 1 ) );
+        }
+        if ( u > k ) {
+            // it is new; the second card is another unseen card or, if
+            // there is one, a single spent on purpose
+            double second = secondCard( u - 1, k + 1, at( below2, k ),
+                                        at( below2, k + 2 ) );
+            if ( k > 0 ) {
+                second = Math.min( second, 1 + at( below, k + 1 ) );
+            }
+            unseenFirst += ( double ) ( u - k ) / u * ( 1 + second );
+        }
+        if ( k == 0 ) {
+            return unseenFirst;
+        }
+        double singleFirst = 1 + secondCard( u, k, at( below, k - 1 ),
+                                             at( below, k + 1 ) );
+        return Math.min( unseenFirst, singleFirst );
+    }
+
+    /**
+     * The expected moves left when a single is turned up and the second
+     * card of the turn is an unseen card.
+     *
+     * @param v the number of cards never seen
+     * @param s the number of singles, counting the one turned up
+     * @return the expected number of moves left
+     */
+    private double secondCard( int v, int s ) {
+        return secondCard( v, s, e( v - 1, s - 1 ),
+                           v > s ? e( v - 1, s + 1 ) : 0 );
+    }
+
+    /**
+     * The expected moves left when a single is turned up and the second
+     * card of the turn is an unseen card.  It is the partner of the card
+     * turned up (a match), the partner of another single (a pair becomes
+     * known) or a new card.
+     *
+     * @param v       the number of cards never seen
+     * @param s       the number of singles, counting the one turned up
+     * @param fewer   E(v - 1, s - 1)
+     * @param greater E(v - 1, s + 1)
+     * @return the expected number of moves left
+     */
+    private static double secondCard( int v, int s, double fewer,
+                                      double greater ) {
+        double result = 1 + ( 1.0 / v ) * fewer;
+        result += ( double ) ( s - 1 ) / v * ( 2 + fewer );
+        if ( v > s ) {
+            result += ( double ) ( v - s ) / v * greater;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,246 @@
+package sim;
+
+import model.ConcentrationModel;
+import model.ModelEvent;
+import model.Observer;
+
+/**
+ * Follows a live game and rates it against optimal play.  The tracker
+ * remembers every card the player has seen, as a player with perfect
+ * memory would, and after each move asks an {@link OptimalSolver} how
+ * many moves optimal play would still need from there.
+ * <p>
+ * {@link #getExcess()} is the moves made plus the moves still expected,
+ * less what optimal play expects for the whole game.  It includes luck
+ * as well as mistakes, but the luck averages out: over many games its
+ * mean is the cost of the player's mistakes.
+ * <p>
+ * The tracker reads the card just turned up while it is being notified,
+ * so it must be added as a synchronous observer.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class OptimalityTracker
+        implements Observer< ConcentrationModel, Object > {
+    /**
+     * Answers the what-would-optimal-play-expect questions.
+     */
+    private final OptimalSolver solver;
+
+    /**
+     * The game being followed.
+     */
+    private final ConcentrationModel model;
+
+    /**
+     * Whether each position has been seen.
+     */
+    private boolean[] seen;
+
+    /**
+     * For each number, how many of its positions have been seen.
+     */
+    private byte[] seenCount;
+
+    /**
+     * The number of cards never seen.
+     */
+    private int unseen;
+
+    /**
+     * The number of numbers seen exactly once.
+     */
+    private int singles;
+
+    /**
+     * The number of pairs known but not matched.
+     */
+    private int knownPairs;
+
+    /**
+     * The number of numbers whose two positions have both been seen.
+     */
+    private int seenTwice;
+
+    /**
+     * The card turned up first in the turn in progress.
+     */
+    private int first;
+
+    /**
+     * What optimal play expects for a whole game on this board, or NaN
+     * until it is first asked for.
+     */
+    private double optimal = Double.NaN;
+
+    /**
+     * @param solver the solver to ask
+     * @param model  the game to follow
+     */
+    private OptimalityTracker( OptimalSolver solver,
+                               ConcentrationModel model ) {
+        this.solver = solver;
+        this.model = model;
+        forget();
+    }
+
+    /**
+     * Start following a game.  The game must not have been played yet.
+     *
+     * @param solver the solver to ask; it may be shared by many trackers
+     * @param model  the game
+     * @return the tracker, already observing the model
+     * @throws IllegalStateException    if a move has already been made
+     * @throws IllegalArgumentException if the game is not played in pairs,
+     *                                  which is all the solver knows, or
+     *                                  has more cards than the solver
+     *                                  serves
+     */
+    public static OptimalityTracker attach( OptimalSolver solver,
+                                            ConcentrationModel model ) {
+        if ( model.getGroupSize() != ConcentrationModel.DEFAULT_GROUP_SIZE ) {
+            throw new IllegalArgumentException(
+                    "optimal play is only known for pairs" );
+        }
+        if ( model.getNumCards() > solver.getNumCards() ) {
+            throw new IllegalArgumentException(
+                    "the solver serves boards of up to " +
+                    solver.getNumCards() + " cards" );
+        }
+        if ( model.getMoveCount() != 0 || model.howManyCardsUp() != 0 ) {
+            throw new IllegalStateException(
+                    "a game must be tracked from its first move" );
+        }
+        OptimalityTracker tracker = new OptimalityTracker( solver, model );
+        model.addObserver( tracker );
+        return tracker;
+    }
+
+    /**
+     * Forget everything seen, for a new deal.
+     */
+    private void forget() {
+        int cards = this.model.getNumCards();
+        this.seen = new boolean[ cards ];
+        this.seenCount = new byte[ this.model.getNumPairs() ];
+        this.unseen = cards;
+        this.singles = 0;
+        this.knownPairs = 0;
+        this.seenTwice = 0;
+        this.first = -1;
+    }
+
+    /**
+     * Take in what the last move showed.
+     *
+     * @param model the game
+     * @param arg   the ModelEvent describing the move
+     */
+    @Override
+    public void update( ConcentrationModel model, Object arg ) {
+        if ( !( arg instanceof ModelEvent ) ) {
+            return;
+        }
+        ModelEvent event = ( ModelEvent ) arg;
+        switch ( event.getType() ) {
+            case SELECT:
+                int n = event.getCard();
+                int count = event.flippedCount();
+                if ( count > 0 && event.flipped( count - 1 ) == n ) {
+                    see( n, model.getBoardView().getNumber( n ) );
+                    if ( model.howManyCardsUp() == 1 ) {
+                        this.first = n;
+                    }
+                }
+                if ( event.isMatch() ) {
+                    --this.knownPairs;
+                }
+                break;
+            case RESET:
+                forget();
+                break;
+            case UNDO_MOVE:
+            case REDO_MOVE:
+                rewound();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Remember a card turned up.
+     *
+     * @param n      its position
+     * @param number its number
+     */
+    private void see( int n, int number ) {
+        if ( this.seen[ n ] ) {
+            return;
+        }
+        this.seen[ n ] = true;
+        --this.unseen;
+        if ( ++this.seenCount[ number ] == 1 ) {
+            ++this.singles;
+        }
+        else {
+            --this.singles;
+            ++this.knownPairs;
+            ++this.seenTwice;
+        }
+    }
+
+    /**
+     * Catch up after a move was taken back or made again.  What the
+     * player has seen stays seen, so every pair seen twice is either
+     * matched or known; the model counts the matched ones, and says which
+     * card starts the turn in progress.
+     */
+    private void rewound() {
+        this.knownPairs = this.seenTwice - this.model.getMatchedPairs();
+        if ( this.model.howManyCardsUp() == 1 ) {
+            this.first = this.model.getSelectedCard( 0 );
+        }
+    }
+
+    /**
+     * @return the moves optimal play would still expect to need from what
+     * the player has seen so far
+     */
+    public double expectedRemaining() {
+        if ( this.model.howManyCardsUp() != 1 ) {
+            return this.solver.expectedMoves( this.unseen, this.singles,
+                                              this.knownPairs );
+        }
+        int number = this.model.getBoardView().getNumber( this.first );
+        if ( this.seenCount[ number ] == 2 ) {
+            // its partner is known: one move matches it
+            return 1 + this.solver.expectedMoves( this.unseen, this.singles,
+                                                  this.knownPairs - 1 );
+        }
+        return this.solver.expectedMovesWithSingleUp( this.unseen,
+                                                      this.singles,
+                                                      this.knownPairs );
+    }
+
+    /**
+     * @return what optimal play expects for a whole game on this board;
+     * the solver's table is filled up to the whole board on the first
+     * call
+     */
+    public double getOptimal() {
+        if ( Double.isNaN( this.optimal ) ) {
+            this.optimal = this.solver.expectedMoves(
+                    this.model.getNumCards(), 0 );
+        }
+        return this.optimal;
+    }
+
+    /**
+     * @return the moves made plus the moves still expected, less what
+     * optimal play expects for the whole game
+     */
+    public double getExcess() {
+        return this.model.getMoveCount() + expectedRemaining() - getOptimal();
+    }
+}
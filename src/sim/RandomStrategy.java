@@ -0,0 +1,95 @@
+package sim;
+
+import model.ConcentrationModel;
+
+import java.util.SplittableRandom;
+
+/**
+ * A player with no memory: every selection is a uniformly random card
+ * that has not yet been matched and is not already up in the turn in
+ * progress.  It plays groups of any size.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class RandomStrategy implements Strategy {
+    /**
+     * The cards that have not been matched.
+     */
+    private final IndexSet live;
+
+    /**
+     * The source of randomness for this game.
+     */
+    private final SplittableRandom rng;
+
+    /**
+     * The cards turned up so far in the turn in progress, all showing the
+     * same number.
+     */
+    private final int[] run;
+
+    /**
+     * The number of cards in the run.
+     */
+    private int count;
+
+    /**
+     * The number on the cards of the run.
+     */
+    private int runNumber;
+
+    /**
+     * Create the player for one game.
+     *
+     * @param model the game that will be played
+     * @param seed  the seed for the player's choices
+     */
+    public RandomStrategy( ConcentrationModel model, long seed ) {
+        this.live = new IndexSet( model.getNumCards() );
+        this.rng = new SplittableRandom( seed );
+        this.run = new int[ model.getGroupSize() ];
+    }
+
+    @Override
+    public int nextCard( ConcentrationModel model ) {
+        if ( this.count == 0 ) {
+            return this.live.pick( this.rng );
+        }
+        // the rest of the run's group is live, so a card is soon found
+        int n;
+        do {
+            n = this.live.pickOther( this.rng, this.run[ 0 ] );
+        } while ( inRun( n ) );
+        return n;
+    }
+
+    /**
+     * @param n a card
+     * @return true if it is up in the turn in progress
+     */
+    private boolean inRun( int n ) {
+        for ( int k = 1; k < this.count; ++k ) {
+            if ( this.run[ k ] == n ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void revealed( int n, int number ) {
+        if ( this.count > 0 && number != this.runNumber ) {
+            // a mismatch ends the turn
+            this.count = 0;
+            return;
+        }
+        this.runNumber = number;
+        this.run[ this.count++ ] = n;
+        if ( this.count == this.run.length ) {
+            for ( int card : this.run ) {
+                this.live.remove( card );
+            }
+            this.count = 0;
+        }
+    }
+}
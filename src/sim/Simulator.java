@@ -0,0 +1,271 @@
+package sim;
+
+import model.ConcentrationModel;
+
+import java.util.stream.LongStream;
+
+/**
+ * A headless engine that plays many games of concentration in parallel.
+ * Every game gets its own model and its own strategy object, and its
+ * shuffle and strategy seeds are derived from the batch seed and the
+ * game's number, so a batch gives the same distribution no matter how
+ * the work is split across threads.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class Simulator {
+    /**
+     * The most cards for which the optimum is printed; the time it takes
+     * grows with the square of the number of cards.
+     */
+    private static final int OPTIMAL_CARDS = 1 << 15;
+
+    /**
+     * The moves per card after which a game is abandoned, unless told
+     * otherwise.
+     */
+    private static final int MOVES_PER_CARD = 32;
+
+    /**
+     * The number of columns on each board.
+     */
+    private final int width;
+
+    /**
+     * The number of rows on each board.
+     */
+    private final int height;
+
+    /**
+     * The number of cards in a matching group.
+     */
+    private final int groupSize;
+
+    /**
+     * Makes the player for each game.
+     */
+    private final StrategyFactory strategies;
+
+    /**
+     * A game that has not finished after this many moves is abandoned.
+     */
+    private final int maxMoves;
+
+    /**
+     * Create a simulator that abandons games after 32 moves per card, or
+     * after the largest int if that is fewer.
+     *
+     * @param width      the number of columns on each board
+     * @param height     the number of rows on each board
+     * @param strategies makes the player for each game
+     */
+    public Simulator( int width, int height, StrategyFactory strategies ) {
+        this( width, height, strategies, moveLimit( width, height ) );
+    }
+
+    /**
+     * Create a simulator.
+     *
+     * @param width      the number of columns on each board
+     * @param height     the number of rows on each board
+     * @param strategies makes the player for each game
+     * @param maxMoves   the move limit for a single game
+     */
+    public Simulator( int width, int height, StrategyFactory strategies,
+                      int maxMoves ) {
+        this( width, height, ConcentrationModel.DEFAULT_GROUP_SIZE,
+              strategies, maxMoves );
+    }
+
+    /**
+     * Create a simulator for a game in which cards match in groups.
+     *
+     * @param width      the number of columns on each board
+     * @param height     the number of rows on each board
+     * @param groupSize  the number of cards in a matching group
+     * @param strategies makes the player for each game
+     * @param maxMoves   the move limit for a single game
+     */
+    public Simulator( int width, int height, int groupSize,
+                      StrategyFactory strategies, int maxMoves ) {
+        this.width = width;
+        this.height = height;
+        this.groupSize = groupSize;
+        this.strategies = strategies;
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * @param width  the number of columns on each board
+     * @param height the number of rows on each board
+     * @return 32 moves per card, capped at the largest int
+     */
+    public static int moveLimit( int width, int height ) {
+        return ( int ) Math.min( Integer.MAX_VALUE,
+                                 ( long ) MOVES_PER_CARD * width * height );
+    }
+
+    /**
+     * Make the board and the player of a game without playing it, so that
+     * settings either of them rejects are reported before a batch starts
+     * rather than from inside it.
+     *
+     * @throws IllegalArgumentException if the board cannot be dealt or the
+     *                                  strategy cannot play it
+     */
+    public void check() {
+        ConcentrationModel model = new ConcentrationModel(
+                this.width, this.height, this.groupSize, 0 );
+        this.strategies.create( model, 0 );
+    }
+
+    /**
+     * Play a batch of games on all available cores.
+     *
+     * @param games the number of games to play
+     * @param seed  the seed for the whole batch
+     * @return the distribution of move counts
+     */
+    public MoveHistogram run( long games, long seed ) {
+        return LongStream.range( 0, games )
+                         .parallel()
+                         .collect( () -> new MoveHistogram( this.maxMoves ),
+                                   ( h, g ) -> h.record( play( seed, g ) ),
+                                   MoveHistogram::merge );
+    }
+
+    /**
+     * Play a single game of a batch.
+     *
+     * @param seed the seed for the whole batch
+     * @param game the number of the game within the batch
+     * @return the number of moves taken, or -1 if the game was abandoned
+     */
+    public int play( long seed, long game ) {
+        long gameSeed = mix( seed + game * 0x9E3779B97F4A7C15L );
+        ConcentrationModel model = new ConcentrationModel(
+                this.width, this.height, this.groupSize, gameSeed );
+        Strategy player =
+                this.strategies.create( model, mix( gameSeed ) );
+
+        while ( !model.isWon() ) {
+            if ( model.getMoveCount() >= this.maxMoves ) {
+                return -1;
+            }
+            int n = player.nextCard( model );
+            model.selectCard( n );
+            player.revealed( n, model.getBoardView().getNumber( n ) );
+        }
+        return model.getMoveCount();
+    }
+
+    /**
+     * Scramble the bits of a seed (the SplitMix64 finalizer).
+     *
+     * @param z a seed
+     * @return a well-mixed seed
+     */
+    private static long mix( long z ) {
+        z = ( z ^ ( z >>> 30 ) ) * 0xBF58476D1CE4E5B9L;
+        z = ( z ^ ( z >>> 27 ) ) * 0x94D049BB133111EBL;
+        return z ^ ( z >>> 31 );
+    }
+
+    /**
+     * Run a batch from the command line and report the distribution and
+     * the throughput.
+     *
+     * @param args games [strategy [width height [seed [group size]]]]
+     *             where strategy is "memory" (the default), "hint" or
+     *             "random"; "memory" plays pairs only
+     */
+    public static void main( String[] args ) {
+        long games;
+        String name;
+        int width;
+        int height;
+        long seed;
+        int group;
+        try {
+            games = args.length > 0 ? Long.parseLong( args[ 0 ] ) : 1_000_000;
+            name = args.length > 1 ? args[ 1 ] : "memory";
+            width = args.length > 3 ? Integer.parseInt( args[ 2 ] )
+                    : ConcentrationModel.BOARD_SIZE;
+            height = args.length > 3 ? Integer.parseInt( args[ 3 ] )
+                    : ConcentrationModel.BOARD_SIZE;
+            seed = args.length > 4 ? Long.parseLong( args[ 4 ] ) : 0;
+            group = args.length > 5 ? Integer.parseInt( args[ 5 ] )
+                    : ConcentrationModel.DEFAULT_GROUP_SIZE;
+        }
+        catch ( NumberFormatException e ) {
+            usage( "not a number: " + e.getMessage() );
+            return;
+        }
+        StrategyFactory strategies = strategy( name );
+        if ( strategies == null ) {
+            usage( "no strategy " + name );
+            return;
+        }
+
+        Simulator simulator = new Simulator( width, height, group, strategies,
+                                             moveLimit( width, height ) );
+        try {
+            simulator.check();
+        }
+        catch ( IllegalArgumentException e ) {
+            usage( e.getMessage() );
+            return;
+        }
+        long start = System.nanoTime();
+        MoveHistogram result = simulator.run( games, seed );
+        double seconds = ( System.nanoTime() - start ) / 1e9;
+        System.out.println( result );
+        System.out.printf( "%d games in %.3f s (%.0f games/min)%n",
+                           games, seconds, games / seconds * 60 );
+        if ( group != ConcentrationModel.DEFAULT_GROUP_SIZE ) {
+            return;
+        }
+        if ( ( long ) width * height > OPTIMAL_CARDS ) {
+            System.out.println( "optimal play: not computed for more than " +
+                                OPTIMAL_CARDS + " cards" );
+            return;
+        }
+        double optimal = OptimalSolver.expectedGameMoves( width * height );
+        System.out.printf( "optimal play: %.3f moves (mean excess %.3f)%n",
+                           optimal, result.mean() - optimal );
+    }
+
+    /**
+     * @param name the name of a strategy, or its first letter
+     * @return the factory of the strategy, or null if there is none by
+     * that name
+     */
+    private static StrategyFactory strategy( String name ) {
+        if ( name.isEmpty() ) {
+            return null;
+        }
+        if ( "memory".startsWith( name ) ) {
+            return MemoryStrategy::new;
+        }
+        if ( "hint".startsWith( name ) ) {
+            return HintStrategy::new;
+        }
+        if ( "random".startsWith( name ) ) {
+            return RandomStrategy::new;
+        }
+        return null;
+    }
+
+    /**
+     * Report bad arguments and how to run the simulator.
+     *
+     * @param problem what was wrong
+     */
+    private static void usage( String problem ) {
+        System.err.println( problem );
+        System.err.println( "usage: java sim.Simulator [games [strategy " +
+                            "[width height [seed [group size]]]]]" );
+        System.err.println( "  strategy: memory (the default, pairs only), " +
+                            "hint or random" );
+    }
+}
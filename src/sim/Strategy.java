@@ -0,0 +1,28 @@
+package sim;
+
+import model.ConcentrationModel;
+
+/**
+ * A player that the simulation engine drives through a single game.
+ * A new strategy object is made for every game, so an implementation may
+ * keep whatever per-game memory it likes.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public interface Strategy {
+    /**
+     * Choose the next card to select.
+     *
+     * @param model the game being played
+     * @return the index of a face-down card
+     */
+    int nextCard( ConcentrationModel model );
+
+    /**
+     * Called after the chosen card has been selected.
+     *
+     * @param n      the index of the card that was selected
+     * @param number the number that the card showed
+     */
+    void revealed( int n, int number );
+}
@@ -0,0 +1,21 @@
+package sim;
+
+import model.ConcentrationModel;
+
+/**
+ * Makes a fresh {@link Strategy} for each simulated game.
+ *
+ * @author Adrian Burgos awb8593
+ */
+@FunctionalInterface
+public interface StrategyFactory {
+    /**
+     * Create the player for one game.
+     *
+     * @param model the game that will be played
+     * @param seed  a seed for any randomness the player uses; the same seed
+     *              must lead to the same choices
+     * @return a new strategy
+     */
+    Strategy create( ConcentrationModel model, long seed );
+}
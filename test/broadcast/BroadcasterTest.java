@@ -0,0 +1,130 @@
+package broadcast;
+
+import model.BoardView;
+import model.ConcentrationModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that every spectator ends up with the board the player sees:
+ * one that keeps up, one whose ring overflows and one that joins late.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class BroadcasterTest {
+    /**
+     * Play games of pairs and of triples with spectators that poll at
+     * different rates, and compare each spectator's board with the game
+     * whenever it has drained its feed.
+     */
+    @Test
+    public void laggingSpectatorCatchesUp() {
+        for ( int group = 2; group <= 3; ++group ) {
+            ConcentrationModel model = new ConcentrationModel( 6, 6, group,
+                                                               group );
+            Broadcaster broadcaster = Broadcaster.attach( model, 8 );
+            Subscription keeping = broadcaster.subscribe( 1024 );
+            Subscription lagging = broadcaster.subscribe( 4 );
+            Subscription late = null;
+            SpectatorBoard keepingBoard = new SpectatorBoard();
+            SpectatorBoard laggingBoard = new SpectatorBoard();
+            SpectatorBoard lateBoard = new SpectatorBoard();
+            Random rng = new Random( group );
+            for ( int m = 0; m < 3000; ++m ) {
+                move( model, rng, m );
+                drain( keeping, keepingBoard );
+                assertSame( model, broadcaster, keepingBoard );
+                if ( m % 37 == 36 ) {
+                    drain( lagging, laggingBoard );
+                    assertSame( model, broadcaster, laggingBoard );
+                }
+                if ( m == 1234 ) {
+                    late = broadcaster.subscribe( 4 );
+                }
+                if ( late != null && m % 53 == 52 ) {
+                    drain( late, lateBoard );
+                    assertSame( model, broadcaster, lateBoard );
+                }
+            }
+            drain( lagging, laggingBoard );
+            assertSame( model, broadcaster, laggingBoard );
+            assertEquals( 0, keeping.getOverflows() );
+            // joining counts as a resync
+            assertEquals( 1, keeping.getResyncs() );
+            assertTrue( lagging.getOverflows() > 0, "lagging overflowed" );
+            assertTrue( lagging.getResyncs() > 1, "lagging resynced" );
+            keeping.close();
+            lagging.close();
+            late.close();
+            assertEquals( 0, broadcaster.getSubscriberCount() );
+        }
+    }
+
+    /**
+     * Make one move of many kinds, mostly good ones.
+     *
+     * @param model the game
+     * @param rng   chooses the move
+     * @param m     the number of the move
+     */
+    private static void move( ConcentrationModel model, Random rng, int m ) {
+        if ( model.isWon() ) {
+            model.reset( rng.nextLong() );
+        }
+        else if ( m % 29 == 28 ) {
+            model.cheat();
+        }
+        else if ( m % 13 == 12 ) {
+            model.undo();
+        }
+        else {
+            int hint = model.getHints().hint();
+            model.selectCard( hint < 0 || rng.nextInt( 3 ) == 0
+                    ? rng.nextInt( model.getNumCards() )
+                    : hint );
+        }
+    }
+
+    /**
+     * Apply every frame queued for a spectator.
+     *
+     * @param feed  the spectator's subscription
+     * @param board the spectator's board
+     */
+    private static void drain( Subscription feed, SpectatorBoard board ) {
+        for ( Frame frame = feed.poll(); frame != null;
+              frame = feed.poll() ) {
+            board.apply( frame );
+        }
+        assertNull( feed.poll() );
+    }
+
+    /**
+     * Check that a spectator sees what the player sees.
+     *
+     * @param model       the game
+     * @param broadcaster its broadcaster
+     * @param board       the spectator's board
+     */
+    private static void assertSame( ConcentrationModel model,
+                                    Broadcaster broadcaster,
+                                    SpectatorBoard board ) {
+        assertEquals( broadcaster.getSequence(), board.getSequence() );
+        assertEquals( model.getMoveCount(), board.getMoveCount() );
+        assertEquals( model.howManyCardsUp(), board.howManyCardsUp() );
+        assertEquals( model.isWon(), board.isWon() );
+        BoardView view = model.getBoardView();
+        assertEquals( view.size(), board.size() );
+        for ( int i = 0; i < view.size(); ++i ) {
+            assertEquals( view.isFaceUp( i ), board.isFaceUp( i ),
+                          "card " + i );
+            assertEquals( view.getNumber( i ), board.getNumber( i ),
+                          "card " + i );
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package eventlog;
+
+import model.ConcentrationModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that a recorded game replays to the same board, at the end and
+ * at every step on the way.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class EventReplayerTest {
+    /**
+     * Where the log is written.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Record games of pairs and of triples, interleaved in one log, and
+     * replay each of them step by step.
+     *
+     * @throws IOException if the log cannot be written or read
+     */
+    @Test
+    public void replayMatchesEveryRecordedState() throws IOException {
+        ConcentrationModel pairs = new ConcentrationModel( 6, 6, 11 );
+        ConcentrationModel triples = new ConcentrationModel( 6, 6, 3, 12 );
+        List< byte[] > pairStates = new ArrayList<>();
+        List< byte[] > tripleStates = new ArrayList<>();
+        try ( EventLog log = new EventLog( this.directory, 1 << 12, 0 ) ) {
+            EventRecorder.attach( log, 1, pairs );
+            EventRecorder.attach( log, 2, triples );
+            pairStates.add( snapshot( pairs ) );
+            tripleStates.add( snapshot( triples ) );
+            Random rng = new Random( 3 );
+            for ( int m = 0; m < 300; ++m ) {
+                move( pairs, rng, m );
+                keep( pairStates, snapshot( pairs ) );
+                move( triples, rng, m );
+                keep( tripleStates, snapshot( triples ) );
+            }
+        }
+        try ( EventReplayer replayer = new EventReplayer( this.directory ) ) {
+            check( replayer, 1, pairs, pairStates );
+            check( replayer, 2, triples, tripleStates );
+            assertNull( replayer.replay( 3, Long.MAX_VALUE ) );
+        }
+    }
+
+    /**
+     * Make one move of many kinds, mostly good ones.
+     *
+     * @param model the game
+     * @param rng   chooses the move
+     * @param m     the number of the move
+     */
+    private static void move( ConcentrationModel model, Random rng, int m ) {
+        if ( model.isWon() || m == 150 ) {
+            model.reset( rng.nextLong() );
+        }
+        else if ( m % 40 == 39 ) {
+            model.reset();
+        }
+        else if ( m % 23 == 22 ) {
+            model.cheat();
+        }
+        else if ( m % 17 == 16 ) {
+            model.undoMove();
+        }
+        else if ( m % 19 == 18 ) {
+            model.redoMove();
+        }
+        else if ( m % 13 == 12 ) {
+            model.undo();
+        }
+        else {
+            int hint = model.getHints().hint();
+            model.selectCard( hint < 0 || rng.nextInt( 3 ) == 0
+                    ? rng.nextInt( model.getNumCards() )
+                    : hint );
+        }
+    }
+
+    /**
+     * Replay a game after each number of operations and compare the
+     * states it goes through with the ones recorded.
+     *
+     * @param replayer the log
+     * @param gameId   the game
+     * @param model    the game as it ended
+     * @param states   the states it went through, without repeats
+     */
+    private static void check( EventReplayer replayer, int gameId,
+                               ConcentrationModel model,
+                               List< byte[] > states ) {
+        List< byte[] > replayed = new ArrayList<>();
+        long records = replayer.recordCount( gameId );
+        for ( long k = 1; k <= records; ++k ) {
+            keep( replayed, snapshot( replayer.replay( gameId, k ) ) );
+        }
+        assertEquals( states.size(), replayed.size(), "states" );
+        for ( int i = 0; i < states.size(); ++i ) {
+            assertArrayEquals( states.get( i ), replayed.get( i ),
+                               "state " + i );
+        }
+        assertArrayEquals( snapshot( model ),
+                           snapshot( replayer.replay( gameId,
+                                                      Long.MAX_VALUE ) ) );
+    }
+
+    /**
+     * @param states the states so far
+     * @param state  a state to add unless it is the last one again
+     */
+    private static void keep( List< byte[] > states, byte[] state ) {
+        if ( states.isEmpty() ||
+             !Arrays.equals( states.get( states.size() - 1 ), state ) ) {
+            states.add( state );
+        }
+    }
+
+    /**
+     * @param model a game
+     * @return its snapshot
+     */
+    private static byte[] snapshot( ConcentrationModel model ) {
+        ByteBuffer out = ByteBuffer.allocate( model.maxSnapshotBytes() );
+        model.writeSnapshot( out );
+        return Arrays.copyOf( out.array(), out.position() );
+    }
+}
@@ -0,0 +1,95 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks what an asynchronous observer delivers when notifications queue
+ * up before its executor gets to it.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class AsyncObserverTest {
+    /**
+     * Without conflation every notification is delivered, in order.
+     */
+    @Test
+    public void deliversEveryNotification() {
+        List< String > seen = new ArrayList<>();
+        Queue< Runnable > tasks = new ArrayDeque<>();
+        AsyncObserver< Object, String > observer = new AsyncObserver<>(
+                ( subject, data ) -> seen.add( data ), tasks::add );
+        for ( String data : new String[]{ "a", "b", "!", "c" } ) {
+            observer.update( this, data );
+        }
+        run( tasks );
+        assertEquals( Arrays.asList( "a", "b", "!", "c" ), seen );
+    }
+
+    /**
+     * With conflation a run of state changes arrives as one null, a lone
+     * one keeps its data and any other notification arrives as it was.
+     */
+    @Test
+    public void conflatesRunsOfStateChanges() {
+        List< String > seen = new ArrayList<>();
+        Queue< Runnable > tasks = new ArrayDeque<>();
+        AsyncObserver< Object, String > observer = new AsyncObserver<>(
+                ( subject, data ) -> seen.add( data ), tasks::add,
+                data -> !data.equals( "!" ) );
+        for ( String data : new String[]{ "a", "b", "c", "!", "d", "!",
+                                          "!", "e", "f" } ) {
+            observer.update( this, data );
+        }
+        run( tasks );
+        assertEquals( Arrays.asList( null, "!", "d", "!", "!", null ), seen );
+        observer.update( this, "g" );
+        run( tasks );
+        assertEquals( "g", seen.get( seen.size() - 1 ) );
+    }
+
+    /**
+     * A model's executor observers see a burst of moves as one update,
+     * and the win on its own.
+     */
+    @Test
+    public void modelConflatesMovesButNotTheWin() {
+        ConcentrationModel model = new ConcentrationModel( 2, 2, 4 );
+        List< Object > seen = new ArrayList<>();
+        Queue< Runnable > tasks = new ArrayDeque<>();
+        model.addObserver( ( m, data ) -> seen.add( data ), tasks::add );
+        BoardView cheat = model.getCheatView();
+        for ( int i = 0; i < 4; ++i ) {
+            for ( int j = i + 1; j < 4; ++j ) {
+                if ( cheat.getNumber( i ) == cheat.getNumber( j ) &&
+                     !model.getBoardView().isFaceUp( i ) ) {
+                    model.selectCard( i );
+                    model.selectCard( j );
+                }
+            }
+        }
+        run( tasks );
+        assertEquals( 2, seen.size() );
+        assertNull( seen.get( 0 ) );
+        assertEquals( ModelEvent.Type.GAME_OVER,
+                      ( ( ModelEvent ) seen.get( 1 ) ).getType() );
+    }
+
+    /**
+     * @param tasks the tasks an executor was given; run until none is left
+     */
+    private static void run( Queue< Runnable > tasks ) {
+        Runnable task;
+        while ( ( task = tasks.poll() ) != null ) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that snapshots taken while several threads select cards on one
+ * board are each a state the board was really in.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class ConcurrentConcentrationModelTest {
+    /**
+     * The number of threads selecting cards.
+     */
+    private static final int PLAYERS = 4;
+
+    /**
+     * Play games to the end from several threads while another takes
+     * snapshots, for groups of 2 and 3.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test
+    public void snapshotsStayConsistent() throws InterruptedException {
+        for ( int group = 2; group <= 3; ++group ) {
+            for ( long seed = 0; seed < 5; ++seed ) {
+                play( new ConcurrentConcentrationModel( 12, 12, group, seed ),
+                      seed );
+            }
+        }
+    }
+
+    /**
+     * @param model a game at the deal
+     * @param seed  chooses the moves
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void play( ConcurrentConcentrationModel model, long seed )
+            throws InterruptedException {
+        AtomicReference< Throwable > failure = new AtomicReference<>();
+        List< Thread > players = new ArrayList<>();
+        for ( int p = 0; p < PLAYERS; ++p ) {
+            SplittableRandom rng = new SplittableRandom( seed * PLAYERS + p );
+            players.add( new Thread( () -> {
+                try {
+                    while ( !model.isWon() ) {
+                        int hint = model.getHints().hint();
+                        model.selectCard( hint < 0 || rng.nextInt( 4 ) == 0
+                                ? rng.nextInt( model.getNumCards() )
+                                : hint );
+                    }
+                }
+                catch ( Throwable t ) {
+                    failure.compareAndSet( null, t );
+                }
+            } ) );
+        }
+        Thread reader = new Thread( () -> {
+            try {
+                int moves = 0;
+                while ( !model.isWon() ) {
+                    BoardSnapshot snapshot = model.snapshot();
+                    assertTrue( snapshot.getMoveCount() >= moves,
+                                "move count went back" );
+                    moves = snapshot.getMoveCount();
+                    check( snapshot, model.getGroupSize() );
+                }
+            }
+            catch ( Throwable t ) {
+                failure.compareAndSet( null, t );
+            }
+        } );
+        reader.start();
+        players.forEach( Thread::start );
+        for ( Thread player : players ) {
+            player.join();
+        }
+        reader.join();
+        assertNull( failure.get(), () -> failure.get().toString() );
+        BoardSnapshot end = model.snapshot();
+        check( end, model.getGroupSize() );
+        assertEquals( model.getNumCards(), faceUp( end ) );
+        assertEquals( model.getNumPairs(), model.getMatchedPairs() );
+    }
+
+    /**
+     * Check that a snapshot is a state a board can be in: whole groups
+     * matched, plus at most one group's worth of cards in the turn.
+     *
+     * @param snapshot the snapshot
+     * @param group    the group size
+     */
+    private static void check( BoardSnapshot snapshot, int group ) {
+        int up = snapshot.howManyCardsUp();
+        assertTrue( up >= 0 && up <= group, "cards up: " + up );
+        int faceUp = faceUp( snapshot );
+        assertEquals( 0, ( faceUp - up ) % group,
+                      faceUp + " face up with " + up + " in the turn" );
+        int[] counts = new int[ snapshot.size() / group ];
+        int whole = 0;
+        for ( int i = 0; i < snapshot.size(); ++i ) {
+            if ( snapshot.isFaceUp( i ) &&
+                 ++counts[ snapshot.getNumber( i ) ] == group ) {
+                ++whole;
+            }
+        }
+        assertTrue( whole >= ( faceUp - up ) / group,
+                    "matched groups not all face up" );
+    }
+
+    /**
+     * @param board a board
+     * @return the number of cards face up
+     */
+    private static int faceUp( BoardView board ) {
+        int count = 0;
+        for ( int i = 0; i < board.size(); ++i ) {
+            if ( board.isFaceUp( i ) ) {
+                ++count;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,100 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the delta records of {@link History} take a game back to
+ * exactly each state it passed through, and forward again.  A game is
+ * played to the end, with some wrong guesses and undos along the way,
+ * and its snapshot is kept after every move; then every move is taken
+ * back down to the deal and made again up to the end, and the snapshot
+ * at each step must be the one kept for it.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class HistoryTest {
+    /**
+     * The most moves played in one game.
+     */
+    private static final int MAX_MOVES = 5000;
+
+    /**
+     * Undo to the deal and redo to the end for groups of 2 to 4 cards.
+     */
+    @Test
+    public void undoAndRedoRestoreEveryState() {
+        for ( int group = 2; group <= 4; ++group ) {
+            for ( long seed = 0; seed < 20; ++seed ) {
+                check( new ConcentrationModel( 6, 8, group, seed ),
+                       new Random( seed ) );
+            }
+        }
+    }
+
+    /**
+     * Play a game, then walk its history back and forth.
+     *
+     * @param model a game at the deal
+     * @param rng   chooses the moves
+     */
+    private static void check( ConcentrationModel model, Random rng ) {
+        List< byte[] > states = new ArrayList<>();
+        states.add( snapshot( model ) );
+        for ( int m = 0; m < MAX_MOVES && !model.isWon(); ++m ) {
+            int hint = model.getHints().hint();
+            if ( rng.nextInt( 10 ) == 0 ) {
+                model.undo();
+            }
+            else if ( hint < 0 || rng.nextInt( 4 ) == 0 ) {
+                model.selectCard( rng.nextInt( model.getNumCards() ) );
+            }
+            else {
+                model.selectCard( hint );
+            }
+            byte[] state = snapshot( model );
+            // a move that changes nothing, such as selecting a card that
+            // is already up, leaves no record
+            if ( !Arrays.equals( state, states.get( states.size() - 1 ) ) ) {
+                states.add( state );
+            }
+        }
+        assertTrue( model.isWon(), "game not won" );
+
+        for ( int i = states.size() - 1; i > 0; --i ) {
+            assertTrue( model.canUndoMove(), "no move to undo at " + i );
+            model.undoMove();
+            assertArrayEquals( states.get( i - 1 ), snapshot( model ),
+                               "undo to state " + ( i - 1 ) );
+        }
+        assertFalse( model.canUndoMove(), "undo past the deal" );
+
+        for ( int i = 1; i < states.size(); ++i ) {
+            assertTrue( model.canRedoMove(), "no move to redo at " + i );
+            model.redoMove();
+            assertArrayEquals( states.get( i ), snapshot( model ),
+                               "redo to state " + i );
+        }
+        assertFalse( model.canRedoMove(), "redo past the end" );
+        assertTrue( model.isWon(), "redone game not won" );
+    }
+
+    /**
+     * @param model a game
+     * @return its snapshot
+     */
+    private static byte[] snapshot( ConcentrationModel model ) {
+        ByteBuffer out = ByteBuffer.allocate( model.maxSnapshotBytes() );
+        model.writeSnapshot( out );
+        return Arrays.copyOf( out.array(), out.position() );
+    }
+}
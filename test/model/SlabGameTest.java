@@ -0,0 +1,120 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that a game in a session slab plays exactly like a
+ * {@link ConcentrationModel} dealt from the same seed, and that a freed
+ * game cannot be played.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class SlabGameTest {
+    /**
+     * Play the same moves on a slab game and on a model, on boards with
+     * narrow and wide card numbers, and compare them as they go.
+     */
+    @Test
+    public void playsLikeTheModel() {
+        int[][] sizes = { { 4, 4 }, { 5, 6 }, { 400, 400 } };
+        for ( int[] size : sizes ) {
+            SessionSlab slab = new SessionSlab( size[ 0 ], size[ 1 ] );
+            for ( long seed = 0; seed < 4; ++seed ) {
+                SlabGame game = slab.game( slab.allocate( seed ) );
+                ConcentrationModel model =
+                        new ConcentrationModel( size[ 0 ], size[ 1 ], seed );
+                assertSame( model, game );
+                Random rng = new Random( seed );
+                boolean small = model.getNumCards() <= 64;
+                for ( int m = 0; m < 2000; ++m ) {
+                    move( model, game, rng, m );
+                    if ( small || m % 250 == 249 ) {
+                        assertSame( model, game );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A freed game rejects moves, and its record is dealt afresh when it is
+     * handed out again.
+     */
+    @Test
+    public void freedGameCannotBePlayed() {
+        SessionSlab slab = new SessionSlab( 4, 4 );
+        int handle = slab.allocate( 1 );
+        SlabGame game = slab.game( handle );
+        game.selectCard( 0 );
+        slab.free( handle );
+        assertThrows( IllegalArgumentException.class,
+                      () -> game.selectCard( 1 ) );
+        assertThrows( IllegalArgumentException.class, game::undo );
+        assertThrows( IllegalArgumentException.class,
+                      () -> game.reset( 2 ) );
+        assertThrows( IllegalArgumentException.class,
+                      () -> slab.game( handle ) );
+        assertEquals( handle, slab.allocate( 3 ) );
+        assertEquals( 0, game.getMoveCount() );
+        assertSame( new ConcentrationModel( 4, 4, 3 ), game );
+    }
+
+    /**
+     * Make the same move on both games: mostly a card, sometimes an undo
+     * or a new deal.
+     *
+     * @param model the model
+     * @param game  the slab game
+     * @param rng   chooses the move
+     * @param m     the number of the move
+     */
+    private static void move( ConcentrationModel model, SlabGame game,
+                              Random rng, int m ) {
+        if ( model.isWon() || m % 500 == 499 ) {
+            long seed = rng.nextLong();
+            model.reset( seed );
+            game.reset( seed );
+        }
+        else if ( m % 11 == 10 ) {
+            model.undo();
+            game.undo();
+        }
+        else {
+            int hint = model.getHints().hint();
+            int n = hint < 0 || rng.nextInt( 3 ) == 0
+                    ? rng.nextInt( model.getNumCards() )
+                    : hint;
+            model.selectCard( n );
+            game.selectCard( n );
+        }
+    }
+
+    /**
+     * Check that the two games look the same to the player and have the
+     * same deal underneath.
+     *
+     * @param expected the model
+     * @param actual   the slab game
+     */
+    private static void assertSame( ConcentrationModel expected,
+                                    SlabGame actual ) {
+        assertEquals( expected.getMoveCount(), actual.getMoveCount() );
+        assertEquals( expected.howManyCardsUp(), actual.howManyCardsUp() );
+        assertEquals( expected.isWon(), actual.isWon() );
+        BoardView a = expected.getBoardView();
+        BoardView b = actual.getBoardView();
+        BoardView c = expected.getCheatView();
+        BoardView d = actual.getCheatView();
+        assertEquals( a.size(), b.size() );
+        for ( int i = 0; i < a.size(); ++i ) {
+            assertEquals( a.isFaceUp( i ), b.isFaceUp( i ), "card " + i );
+            assertEquals( a.getNumber( i ), b.getNumber( i ), "card " + i );
+            assertEquals( c.getNumber( i ), d.getNumber( i ), "card " + i );
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the snapshot encoding: a game read back from its snapshot is the
+ * same game, version 1 snapshots still read as pairs, and a deck that is
+ * not whole groups is rejected.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class SnapshotTest {
+    /**
+     * Games part way through, with groups of 2 to 4, read back equal and
+     * write the same bytes again.
+     */
+    @Test
+    public void writeThenReadIsEqual() {
+        for ( int group = 2; group <= 4; ++group ) {
+            Random rng = new Random( group );
+            for ( int game = 0; game < 20; ++game ) {
+                ConcentrationModel model =
+                        new ConcentrationModel( 6, 4, group, game );
+                play( model, rng, rng.nextInt( 60 ) );
+                byte[] bytes = snapshot( model );
+                ConcentrationModel copy =
+                        ConcentrationModel.readSnapshot(
+                                ByteBuffer.wrap( bytes ) );
+                assertSame( model, copy );
+                assertArrayEquals( bytes, snapshot( copy ) );
+            }
+        }
+    }
+
+    /**
+     * Snapshots written one after another into a buffer read back in
+     * order.
+     */
+    @Test
+    public void snapshotsShareABuffer() {
+        ConcentrationModel[] models = new ConcentrationModel[ 3 ];
+        ByteBuffer buffer = ByteBuffer.allocate( 3 * 1024 );
+        for ( int i = 0; i < models.length; ++i ) {
+            models[ i ] = new ConcentrationModel( 4, 3, 2 + i % 2, i );
+            play( models[ i ], new Random( i ), 10 );
+            models[ i ].writeSnapshot( buffer );
+        }
+        buffer.flip();
+        for ( ConcentrationModel model : models ) {
+            assertSame( model, ConcentrationModel.readSnapshot( buffer ) );
+        }
+        assertFalse( buffer.hasRemaining() );
+    }
+
+    /**
+     * A version 1 snapshot, which has no group size, reads as pairs.
+     */
+    @Test
+    public void versionOneReadsAsPairs() {
+        ConcentrationModel model = new ConcentrationModel( 4, 4, 5 );
+        play( model, new Random( 5 ), 12 );
+        byte[] current = snapshot( model );
+        // version, width, height and group size are one byte each here
+        byte[] old = new byte[ current.length - 1 ];
+        old[ 0 ] = 1;
+        old[ 1 ] = current[ 1 ];
+        old[ 2 ] = current[ 2 ];
+        System.arraycopy( current, 4, old, 3, current.length - 4 );
+        ConcentrationModel copy =
+                ConcentrationModel.readSnapshot( ByteBuffer.wrap( old ) );
+        assertEquals( ConcentrationModel.DEFAULT_GROUP_SIZE,
+                      copy.getGroupSize() );
+        assertSame( model, copy );
+        assertArrayEquals( current, snapshot( copy ) );
+    }
+
+    /**
+     * An unknown version is rejected.
+     */
+    @Test
+    public void unknownVersionIsRejected() {
+        byte[] bytes = snapshot( new ConcentrationModel( 2, 2, 1 ) );
+        bytes[ 0 ] = 3;
+        assertThrows( IllegalArgumentException.class,
+                      () -> ConcentrationModel.readSnapshot(
+                              ByteBuffer.wrap( bytes ) ) );
+    }
+
+    /**
+     * Decks with a group short, a number out of range or a negative
+     * number are rejected.
+     */
+    @Test
+    public void malformedDecksAreRejected() {
+        int[][] decks = { { 0, 0, 0, 1 }, { 0, 0, 1, 2 }, { 0, 1, 1, -1 },
+                          { 0, 0, 1, 1, 1, 2 } };
+        for ( int[] deck : decks ) {
+            ByteBuffer in = handMade( deck.length == 4 ? 2 : 3, 2, 2, deck );
+            assertThrows( IllegalArgumentException.class,
+                          () -> ConcentrationModel.readSnapshot( in ),
+                          Arrays.toString( deck ) );
+        }
+        ConcentrationModel model = ConcentrationModel.readSnapshot(
+                handMade( 2, 2, 2, new int[]{ 1, 0, 0, 1 } ) );
+        assertEquals( 1, model.getCheatView().getNumber( 0 ) );
+    }
+
+    /**
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param group  the group size
+     * @param deck   the card numbers
+     * @return a version 2 snapshot of a new game with that deck
+     */
+    private static ByteBuffer handMade( int width, int height, int group,
+                                        int[] deck ) {
+        ByteBuffer out = ByteBuffer.allocate( 256 );
+        out.put( ( byte ) 2 );
+        Varint.put( out, width );
+        Varint.put( out, height );
+        Varint.put( out, group );
+        Varint.put( out, 0 );
+        out.putLong( 0 );
+        Varint.put( out, 0 );
+        for ( int number : deck ) {
+            Varint.put( out, number );
+        }
+        out.putLong( 0 );
+        out.putLong( ( 1L << deck.length ) - 1 );
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Play some moves, mostly on hints.
+     *
+     * @param model the game
+     * @param rng   chooses the moves
+     * @param moves how many
+     */
+    private static void play( ConcentrationModel model, Random rng,
+                              int moves ) {
+        for ( int m = 0; m < moves && !model.isWon(); ++m ) {
+            int hint = model.getHints().hint();
+            model.selectCard( hint < 0 || rng.nextInt( 3 ) == 0
+                                      ? rng.nextInt( model.getNumCards() )
+                                      : hint );
+        }
+    }
+
+    /**
+     * @param model a game
+     * @return its snapshot
+     */
+    private static byte[] snapshot( ConcentrationModel model ) {
+        ByteBuffer out = ByteBuffer.allocate( model.maxSnapshotBytes() );
+        model.writeSnapshot( out );
+        return Arrays.copyOf( out.array(), out.position() );
+    }
+
+    /**
+     * Check that two games look the same to the player and have the same
+     * deal underneath.
+     *
+     * @param expected a game
+     * @param actual   its copy
+     */
+    private static void assertSame( ConcentrationModel expected,
+                                    ConcentrationModel actual ) {
+        assertEquals( expected.getGroupSize(), actual.getGroupSize() );
+        assertEquals( expected.getMoveCount(), actual.getMoveCount() );
+        assertEquals( expected.howManyCardsUp(), actual.howManyCardsUp() );
+        assertEquals( expected.isMismatched(), actual.isMismatched() );
+        assertEquals( expected.getMatchedPairs(), actual.getMatchedPairs() );
+        assertEquals( expected.isWon(), actual.isWon() );
+        assertEquals( expected.getSeed(), actual.getSeed() );
+        BoardView a = expected.getBoardView();
+        BoardView b = actual.getBoardView();
+        BoardView c = expected.getCheatView();
+        BoardView d = actual.getCheatView();
+        for ( int i = 0; i < a.size(); ++i ) {
+            assertEquals( a.isFaceUp( i ), b.isFaceUp( i ), "card " + i );
+            assertEquals( a.getNumber( i ), b.getNumber( i ), "card " + i );
+            assertEquals( c.getNumber( i ), d.getNumber( i ), "card " + i );
+        }
+    }
+}
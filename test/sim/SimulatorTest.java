@@ -0,0 +1,85 @@
+package sim;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a batch depends only on its seed, and that the move
+ * histogram stays small and close on any move limit.
+ *
+ * @author Adrian Burgos awb8593
+ */
+public class SimulatorTest {
+    /**
+     * A parallel batch gives the same histogram as playing its games one
+     * by one, and as the same batch run again.
+     */
+    @Test
+    public void sameSeedSameHistogram() {
+        Simulator simulator = new Simulator( 6, 6, HintStrategy::new );
+        int games = 2000;
+        long seed = 7;
+        MoveHistogram sequential =
+                new MoveHistogram( Simulator.moveLimit( 6, 6 ) );
+        for ( long g = 0; g < games; ++g ) {
+            sequential.record( simulator.play( seed, g ) );
+        }
+        MoveHistogram parallel = simulator.run( games, seed );
+        MoveHistogram again = simulator.run( games, seed );
+        for ( MoveHistogram h : new MoveHistogram[]{ parallel, again } ) {
+            assertEquals( sequential.toString(), h.toString() );
+            for ( int m = 0; m <= Simulator.moveLimit( 6, 6 ); ++m ) {
+                assertEquals( sequential.count( m ), h.count( m ),
+                              "games of " + m + " moves" );
+            }
+        }
+    }
+
+    /**
+     * The default move limit of a huge board is capped, not overflowed.
+     */
+    @Test
+    public void moveLimitIsCapped() {
+        assertEquals( 32 * 36, Simulator.moveLimit( 6, 6 ) );
+        assertEquals( Integer.MAX_VALUE,
+                      Simulator.moveLimit( 100_000, 100_000 ) );
+    }
+
+    /**
+     * Large move counts land in buckets: the mean and the extremes stay
+     * exact and a percentile is at most 1/64 too high.
+     */
+    @Test
+    public void largeCountsAreBucketed() {
+        MoveHistogram h = new MoveHistogram( Integer.MAX_VALUE );
+        long total = 0;
+        for ( int m = 1_000_000; m < 1_010_000; ++m ) {
+            h.record( m );
+            total += m;
+        }
+        h.record( -1 );
+        assertEquals( 10_000, h.getFinished() );
+        assertEquals( 1, h.getUnfinished() );
+        assertEquals( ( double ) total / 10_000, h.mean(), 1e-6 );
+        assertEquals( 1_000_000, h.percentile( 0 ) );
+        assertEquals( 1_009_999, h.percentile( 1 ) );
+        int median = h.percentile( 0.5 );
+        assertTrue( median >= 1_004_999 && median <= 1_004_999 * 65 / 64,
+                    "median " + median );
+    }
+
+    /**
+     * A strategy that cannot play the board is reported before a batch.
+     */
+    @Test
+    public void checkRejectsMemoryOnTriples() {
+        Simulator simulator = new Simulator( 3, 4, 3, MemoryStrategy::new,
+                                             Simulator.moveLimit( 3, 4 ) );
+        assertThrows( IllegalArgumentException.class, simulator::check );
+        new Simulator( 3, 4, 3, RandomStrategy::new,
+                       Simulator.moveLimit( 3, 4 ) ).check();
+    }
+}